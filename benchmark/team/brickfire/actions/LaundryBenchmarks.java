@@ -0,0 +1,68 @@
+package team.brickfire.actions;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import team.brickfire.data.color.AdvancedColor;
+import team.brickfire.data.color.Color;
+import team.brickfire.data.color.LaundryBlockColorMap;
+import team.brickfire.robot_parts.sensors.ScriptedColorSensor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks for evaluating the laundry blocks</p>
+ * <p>The block scans are made once with a {@link ScriptedColorSensor}, so only
+ * {@link LaundryAction#evaluateLaundryBlocks(List)} is measured and not the scanning</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LaundryBenchmarks {
+
+    // Firmware colors of six block spots: three blocks, two empty spots and one unclear scan
+    private static final Color[][] SCANS = {
+            {Color.YELLOW, Color.YELLOW, Color.BROWN, Color.YELLOW},
+            {Color.RED, Color.RED, Color.RED, Color.BROWN},
+            {Color.NO_COLOR, Color.BLUE, Color.NO_COLOR, Color.NO_COLOR},
+            {Color.BLACK, Color.BLACK, Color.BLACK, Color.BLUE},
+            {Color.NO_COLOR, Color.NO_COLOR, Color.NO_COLOR, Color.NO_COLOR},
+            {Color.RED, Color.YELLOW, Color.BLACK, Color.NO_COLOR}};
+    private static final float[][] RGBS = {{0.3f, 0.25f, 0.05f}, {0.31f, 0.24f, 0.06f}, {0.29f, 0.26f, 0.05f}};
+
+    private List<AdvancedColor> blockScans;
+
+    @Setup
+    public void setUp() {
+        LaundryBlockColorMap map = new LaundryBlockColorMap();
+        blockScans = new ArrayList<>();
+        for (Color[] scan : SCANS) {
+            blockScans.add(new AdvancedColor(new ScriptedColorSensor(scan, RGBS), map));
+        }
+    }
+
+    /**
+     * <p>{@link LaundryAction#evaluateLaundryBlocks(List)} on six scans</p>
+     *
+     * @return Ordinal of the first block
+     */
+    @Benchmark
+    public int evaluateLaundryBlocks() {
+        return LaundryAction.evaluateLaundryBlocks(blockScans).getBlocks()[0].ordinal();
+    }
+}
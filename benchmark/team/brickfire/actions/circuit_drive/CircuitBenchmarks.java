@@ -0,0 +1,87 @@
+package team.brickfire.actions.circuit_drive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks for planning paths on the circuit</p>
+ * <p>In the same package as {@link CircuitNetwork} so the package-private classes can be used</p>
+ *
+ * @author Team BrickFire
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CircuitBenchmarks {
+
+    private static final CircuitPosition[] POSITIONS = CircuitPosition.values();
+    private static final double DRIVING_SPEED = 50;
+    private static final double TURNING_SPEED = 40;
+
+    private CircuitNetwork network;
+    private TourPlanner planner;
+    private List<CircuitPosition> stops;
+    private int startHeadingId;
+
+    @Setup
+    public void setUp() {
+        network = new CircuitNetwork(DRIVING_SPEED, TURNING_SPEED);
+        planner = new TourPlanner(network);
+        stops = Arrays.asList(CircuitPosition.NORTH_WEST, CircuitPosition.SOUTH_EAST, CircuitPosition.EAST,
+                CircuitPosition.SOUTH_WEST, CircuitPosition.NORTH);
+        startHeadingId = network.getHeadingId(CircuitOrientation.NORTH.getHeading());
+    }
+
+    /**
+     * <p>{@link CircuitNetwork#getPath} for every pair of positions</p>
+     *
+     * @return Summed length of the paths
+     */
+    @Benchmark
+    public int getPathAllPairs() {
+        int length = 0;
+        for (CircuitPosition start : POSITIONS) {
+            for (CircuitPosition end : POSITIONS) {
+                length += network.getPath(start, end, CircuitOrientation.NORTH, CircuitOrientation.EAST).length;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * <p>Building the route table</p>
+     *
+     * @return Amount of headings of the new network
+     */
+    @Benchmark
+    public int buildRouteTable() {
+        return new CircuitNetwork(DRIVING_SPEED, TURNING_SPEED).getHeadingCount();
+    }
+
+    /**
+     * <p>{@link TourPlanner#plan} through five stops</p>
+     *
+     * @return Amount of stops of the plan
+     */
+    @Benchmark
+    public int planTour() {
+        return planner.plan(CircuitPosition.CENTER, startHeadingId, stops, CircuitPosition.CENTER,
+                CircuitOrientation.NORTH).size();
+    }
+}
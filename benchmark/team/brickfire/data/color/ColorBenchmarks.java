@@ -0,0 +1,180 @@
+package team.brickfire.data.color;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks for mapping and voting on scanned {@link Color colors}</p>
+ * <p>Every benchmark that works on scans goes through all {@value #SCANS} of them</p>
+ *
+ * @author Team BrickFire
+ * @version 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ColorBenchmarks {
+
+    // Same amount of samples ColorSensor.getColor(ColorMap, int) is called with while scanning
+    private static final int SAMPLES = 10;
+    private static final int SCANS = 64;
+    private static final int[] LEJOS_IDS = {lejos.robotics.Color.NONE, lejos.robotics.Color.BLACK,
+            lejos.robotics.Color.WHITE, lejos.robotics.Color.RED, lejos.robotics.Color.GREEN,
+            lejos.robotics.Color.BLUE, lejos.robotics.Color.YELLOW, lejos.robotics.Color.BROWN, -2, 42};
+
+    private ColorMap map;
+    private Color[][] scans;
+    private RGBClassifier classifier;
+    private float[][] rgbScans;
+    private double[][] laundryScans;
+
+    @Setup
+    public void setUp() {
+        map = new LaundryBlockColorMap();
+        scans = syntheticScans(new Random(2022), SCANS);
+        // Made up model, only the amount of colors matters for the time
+        classifier = new RGBClassifier(new Color[] {Color.BLACK, Color.RED, Color.YELLOW, Color.NO_COLOR},
+                new double[] {0.03, 0.03, 0.02, 1e-4, 1e-4, 1e-4, 0.3, 0.05, 0.03, 1e-3, 1e-4, 1e-4,
+                        0.35, 0.25, 0.05, 1e-3, 1e-3, 1e-4, 0.005, 0.005, 0.005, 1e-5, 1e-5, 1e-5});
+        rgbScans = new float[SCANS][];
+        Random random = new Random(2022);
+        for (int i = 0; i < SCANS; i++) {
+            rgbScans[i] = new float[] {random.nextFloat() * 0.4f, random.nextFloat() * 0.3f, random.nextFloat() * 0.1f};
+        }
+        // Six scans: three blocks, two empty spots and one unclear scan
+        laundryScans = new double[][] {{0.1, 0.0, 0.9, 0.0}, {0.0, 0.8, 0.1, 0.1}, {0.0, 0.0, 0.3, 0.7},
+                {0.9, 0.1, 0.0, 0.0}, {0.0, 0.0, 0.2, 0.8}, {0.3, 0.3, 0.3, 0.1}};
+    }
+
+    /**
+     * <p>{@link LaundryAssignment} of six scans from their likelihoods</p>
+     *
+     * @return Ordinal of the first block
+     */
+    @Benchmark
+    public int laundryAssignment() {
+        return new LaundryAssignment(laundryScans).getBlocks()[0].ordinal();
+    }
+
+    /**
+     * <p>{@link Color#fromLeJOSID(int)} of valid and invalid ids</p>
+     *
+     * @return Summed ordinals
+     */
+    @Benchmark
+    public int fromLeJOSID() {
+        int sum = 0;
+        for (int id : LEJOS_IDS) {
+            sum += Color.fromLeJOSID(id).ordinal();
+        }
+        return sum;
+    }
+
+    /**
+     * <p>{@link ColorMap#repeatByPriority(Color...)}</p>
+     *
+     * @return Summed lengths
+     */
+    @Benchmark
+    public int repeatByPriority() {
+        int length = 0;
+        for (Color[] scan : scans) {
+            length += map.repeatByPriority(scan).length;
+        }
+        return length;
+    }
+
+    /**
+     * <p>{@link ColorMap#getPrioritisedValueBySum(Color...)}</p>
+     *
+     * @return Summed ordinals
+     */
+    @Benchmark
+    public int getPrioritisedValueBySum() {
+        int sum = 0;
+        for (Color[] scan : scans) {
+            sum += map.getPrioritisedValueBySum(scan).ordinal();
+        }
+        return sum;
+    }
+
+    /**
+     * <p>{@link ColorMap#vote(Color...)}, which replaces the pipeline of {@link #pipelineVote()}</p>
+     *
+     * @return Summed ordinals, -1 for scans without a result
+     */
+    @Benchmark
+    public int vote() {
+        int sum = 0;
+        for (Color[] scan : scans) {
+            sum += ordinal(map.vote(scan));
+        }
+        return sum;
+    }
+
+    /**
+     * <p>The vote ColorSensor used to do: repeat by priority, map and sum. It runs on the array backed methods of
+     * today, not on the HashMap based ones from before</p>
+     *
+     * @return Summed ordinals, -1 for scans without a result
+     */
+    @Benchmark
+    public int pipelineVote() {
+        int sum = 0;
+        for (Color[] scan : scans) {
+            sum += ordinal(map.getPrioritisedValueBySum(map.mappedValues(map.repeatByPriority(scan))));
+        }
+        return sum;
+    }
+
+    /**
+     * <p>{@link RGBClassifier#classify(float, float, float)}</p>
+     *
+     * @return Summed ordinals
+     */
+    @Benchmark
+    public int classify() {
+        int sum = 0;
+        for (float[] rgb : rgbScans) {
+            sum += classifier.classify(rgb[0], rgb[1], rgb[2]).ordinal();
+        }
+        return sum;
+    }
+
+    /**
+     * <p>Creates scans that mostly see one color with some noise, like a block under the sensor</p>
+     *
+     * @param random Source of the noise
+     * @param amount Amount of scans
+     * @return Scans of {@value #SAMPLES} colors each
+     */
+    private static Color[][] syntheticScans(Random random, int amount) {
+        Color[] colors = Color.values();
+        Color[][] scans = new Color[amount][SAMPLES];
+        for (Color[] scan : scans) {
+            Color actual = colors[random.nextInt(colors.length)];
+            for (int i = 0; i < SAMPLES; i++) {
+                scan[i] = random.nextInt(4) == 0 ? colors[random.nextInt(colors.length)] : actual;
+            }
+        }
+        return scans;
+    }
+
+    private static int ordinal(Color color) {
+        return color == null ? -1 : color.ordinal();
+    }
+}
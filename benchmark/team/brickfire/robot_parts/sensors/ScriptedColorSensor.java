@@ -0,0 +1,44 @@
+package team.brickfire.robot_parts.sensors;
+
+import team.brickfire.data.color.Color;
+
+/**
+ * <p>Color sensor that plays back given scans instead of reading a sensor</p>
+ * <p>Only works with the leJOS stubs, the real sensor needs a port. Colors and rgb values are returned in order and
+ * start over at the end</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class ScriptedColorSensor extends ColorSensor {
+
+    private final Color[] colors;
+    private final float[][] rgbs;
+    private int nextColor;
+    private int nextRgb;
+
+    /**
+     * <p>Creates the sensor</p>
+     *
+     * @param colors Colors to return, as the firmware would before mapping
+     * @param rgbs Red, green and blue values to return
+     */
+    public ScriptedColorSensor(Color[] colors, float[][] rgbs) {
+        super(null);
+        this.colors = colors;
+        this.rgbs = rgbs;
+    }
+
+    @Override
+    public Color getColor() {
+        Color color = colors[nextColor];
+        nextColor = (nextColor + 1) % colors.length;
+        return color;
+    }
+
+    @Override
+    public void fetchRGB(float[] sample, int offset) {
+        System.arraycopy(rgbs[nextRgb], 0, sample, offset, 3);
+        nextRgb = (nextRgb + 1) % rgbs.length;
+    }
+}
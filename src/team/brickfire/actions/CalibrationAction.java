@@ -0,0 +1,69 @@
+package team.brickfire.actions;
+
+import lejos.hardware.Button;
+import team.brickfire.data.color.Color;
+import team.brickfire.data.color.RGBClassifier;
+import team.brickfire.robot_parts.sensors.ColorSensor;
+
+import java.io.IOException;
+
+/**
+ * <p>Calibrates the rgb classifiers of the {@link team.brickfire.data.color.ColorMap ColorMaps}</p>
+ * <p>Asks for every color to be put in front of the sensor a few times, scans it and saves the classifier on the
+ * brick. It gets loaded by the ColorMap the next time the program starts</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class CalibrationAction extends BaseAction {
+
+    // Every color is put in front of the sensor this often, so the variance includes the placement
+    private static final int PLACEMENTS = 3;
+    private static final int SCANS = 20;
+
+    /**
+     * <p>Creates the calibration action</p>
+     */
+    public CalibrationAction() {
+        super();
+    }
+
+    /**
+     * <p>Calibrates every ColorMap that can classify rgb scans</p>
+     */
+    public void calibrateAll() {
+        calibrate("LaundryBlockColorMap", colorSensorBlocks, Color.BLACK, Color.RED, Color.YELLOW, Color.NO_COLOR);
+        calibrate("LaundryBasketColorMap", colorSensorBaskets, Color.BLACK, Color.RED, Color.YELLOW);
+        calibrate("RoomBlockColorMap", colorSensorBlocks, Color.WHITE, Color.GREEN, Color.NO_COLOR);
+    }
+
+    /**
+     * <p>Calibrates one ColorMap</p>
+     *
+     * @param name Name of the ColorMap
+     * @param sensor Sensor the map is used with
+     * @param colors Colors the map should tell apart. {@link Color#NO_COLOR} means nothing in front of the sensor
+     */
+    public void calibrate(String name, ColorSensor sensor, Color... colors) {
+        RGBClassifier.Trainer trainer = new RGBClassifier.Trainer();
+        float[] rgb = new float[3];
+        for (Color color : colors) {
+            for (int i = 0; i < PLACEMENTS; i++) {
+                System.out.println(name + ": " + color + " " + (i + 1) + "/" + PLACEMENTS);
+                Button.waitForAnyPress();
+                for (int j = 0; j < SCANS; j++) {
+                    sensor.fetchRGB(rgb, 0);
+                    trainer.add(color, rgb);
+                }
+            }
+        }
+
+        RGBClassifier classifier = trainer.build();
+        System.out.println(classifier);
+        try {
+            classifier.save(name);
+        } catch (IOException e) {
+            System.out.println("Not saved: " + e.getMessage());
+        }
+    }
+}
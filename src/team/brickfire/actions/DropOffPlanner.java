@@ -0,0 +1,270 @@
+package team.brickfire.actions;
+
+import team.brickfire.actions.circuit_drive.DrivingTimeModel;
+import team.brickfire.data.color.Color;
+import team.brickfire.data.color.LaundryAssignment;
+import team.brickfire.robot_parts.arms.WaterBottleArm;
+
+import java.util.Arrays;
+
+/**
+ * <p>Plans which laundry basket the robot drives to next while dropping off the blocks</p>
+ * <p>The blocks leave the arm in the order they were collected. Every arrangement of the
+ * {@link LaundryAssignment#LAUNDRY_COLORS laundry colors} on the baskets that fits the scanned colors is equally
+ * likely, so with partial scans the robot may have to scan a basket before it knows whether to drop there. The
+ * expected time of every state (next block, basket the robot is in front of, arrangements still possible) is
+ * calculated exactly by dynamic programming, there are only a few hundred of them</p>
+ * <p>Used in {@link LaundryAction}</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+class DropOffPlanner {
+
+    private static final Color[] COLORS = LaundryAssignment.LAUNDRY_COLORS;
+    // Laundry color index of every basket for every arrangement
+    private static final int[][] ARRANGEMENTS = arrangements();
+    private static final int ALL = (1 << ARRANGEMENTS.length) - 1;
+
+    // Arm movement of dropping a block and moving back, starting where the last drop left the arm
+    private static final double DROP_TIME = WaterBottleArm.DROP_BLOCK.duration(WaterBottleArm.DROP_END,
+            WaterBottleArm.SPEED, WaterBottleArm.MAX_SPEED, WaterBottleArm.ACCELERATION_FACTOR);
+    // Scanning a basket while standing in front of it
+    private static final double SCAN_TIME = 0.2;
+
+    private final int[] blocks;
+    private final int finish;
+    private final double basketDistance;
+    private final DrivingTimeModel timeModel;
+    // Expected time and basket to drive to next, indexed by state
+    private final double[] expected;
+    private final int[] choices;
+
+    /**
+     * <p>Plans the drop off</p>
+     *
+     * @param blocks Colors of the blocks in the order they are dropped. Blocks without a laundry color are dropped
+     *               wherever the robot is
+     * @param finish Basket the robot has to end in front of or -1 if it can end anywhere
+     * @param basketDistance Distance between two neighbouring baskets in cm
+     * @param drivingSpeed Speed at which the robot drives between the baskets (0-100% of maximum capability)
+     */
+    public DropOffPlanner(Color[] blocks, int finish, double basketDistance, double drivingSpeed) {
+        this.blocks = new int[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            this.blocks[i] = indexOf(blocks[i]);
+        }
+        this.finish = finish;
+        this.basketDistance = basketDistance;
+        this.timeModel = new DrivingTimeModel(drivingSpeed, 0);
+        this.expected = new double[(blocks.length + 1) * COLORS.length * (ALL + 1)];
+        this.choices = new int[expected.length];
+        Arrays.fill(expected, Double.NaN);
+    }
+
+    /**
+     * <p>Gets the basket to drive to next</p>
+     * <p>In front of it the robot scans the basket if its color isn't known and drops the block if the basket has
+     * the color of the block</p>
+     *
+     * @param block Index of the next block to drop
+     * @param basket Basket the robot is in front of
+     * @param baskets Scanned colors of the baskets, {@link Color#NO_COLOR} for unknown ones
+     * @return Basket to drive to next
+     */
+    public int next(int block, int basket, Color[] baskets) {
+        int mask = mask(baskets);
+        solve(block, basket, mask);
+        return choices[state(block, basket, mask)];
+    }
+
+    /**
+     * <p>Gets the expected time for dropping off the remaining blocks and driving to the finish</p>
+     *
+     * @param block Index of the next block to drop
+     * @param basket Basket the robot is in front of
+     * @param baskets Scanned colors of the baskets, {@link Color#NO_COLOR} for unknown ones
+     * @return Time in seconds
+     */
+    public double getExpectedTime(int block, int basket, Color[] baskets) {
+        return solve(block, basket, mask(baskets));
+    }
+
+    /**
+     * <p>Gets the color of a basket if the scans leave only one possibility</p>
+     *
+     * @param baskets Scanned colors of the baskets, {@link Color#NO_COLOR} for unknown ones
+     * @param basket The basket
+     * @return Laundry color of the basket or null if it isn't known yet
+     */
+    public static Color getColor(Color[] baskets, int basket) {
+        int index = colorAt(mask(baskets), basket);
+        return index < 0 ? null : COLORS[index];
+    }
+
+    /**
+     * <p>Fills in the unknown baskets with the first arrangement that fits the scanned colors</p>
+     * <p>Every fitting arrangement is equally likely, so this is the most likely assignment as well as any other.
+     * Afterwards every basket is known and nothing needs to be scanned anymore</p>
+     *
+     * @param baskets Scanned colors of the baskets, {@link Color#NO_COLOR} for unknown ones
+     */
+    public static void complete(Color[] baskets) {
+        int[] arrangement = ARRANGEMENTS[Integer.numberOfTrailingZeros(mask(baskets))];
+        for (int basket = 0; basket < COLORS.length; basket++) {
+            baskets[basket] = COLORS[arrangement[basket]];
+        }
+    }
+
+    /**
+     * <p>Gets the index of a laundry color</p>
+     *
+     * @param color The color
+     * @return Index in {@link LaundryAssignment#LAUNDRY_COLORS} or -1 if it isn't a laundry color
+     */
+    public static int indexOf(Color color) {
+        for (int i = 0; i < COLORS.length; i++) {
+            if (COLORS[i] == color) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * <p>Calculates the expected time of a state and the basket to drive to from it</p>
+     * <p>Driving to a basket of the block's color drops the block. Driving to a basket whose color isn't known
+     * scans it, which splits the arrangements by the color seen there. Either way the state gets smaller, so the
+     * recursion ends</p>
+     *
+     * @param block Index of the next block to drop
+     * @param basket Basket the robot is in front of
+     * @param mask Bit mask of the possible arrangements
+     * @return Expected time in seconds
+     */
+    private double solve(int block, int basket, int mask) {
+        int state = state(block, basket, mask);
+        if (!Double.isNaN(expected[state])) {
+            return expected[state];
+        }
+
+        double best;
+        int choice = basket;
+        if (block == blocks.length) {
+            if (finish >= 0) {
+                choice = finish;
+            }
+            best = travelTime(basket, choice);
+        } else if (blocks[block] < 0) {
+            best = DROP_TIME + solve(block + 1, basket, mask);
+        } else {
+            best = Double.MAX_VALUE;
+            for (int target = 0; target < COLORS.length; target++) {
+                double time = travelTime(basket, target) + targetTime(block, target, mask);
+                if (time < best) {
+                    best = time;
+                    choice = target;
+                }
+            }
+        }
+        expected[state] = best;
+        choices[state] = choice;
+        return best;
+    }
+
+    /**
+     * <p>Calculates the expected time after arriving at a basket</p>
+     *
+     * @param block Index of the next block to drop
+     * @param target Basket the robot arrives at
+     * @param mask Bit mask of the possible arrangements
+     * @return Expected time in seconds or {@link Double#MAX_VALUE} if driving there is pointless
+     */
+    private double targetTime(int block, int target, int mask) {
+        int known = colorAt(mask, target);
+        if (known == blocks[block]) {
+            return DROP_TIME + solve(block + 1, target, mask);
+        } else if (known >= 0) {
+            return Double.MAX_VALUE;
+        }
+
+        double time = SCAN_TIME;
+        int count = Integer.bitCount(mask);
+        for (int color = 0; color < COLORS.length; color++) {
+            int seen = 0;
+            for (int a = 0; a < ARRANGEMENTS.length; a++) {
+                if ((mask & (1 << a)) != 0 && ARRANGEMENTS[a][target] == color) {
+                    seen |= 1 << a;
+                }
+            }
+            if (seen != 0) {
+                double after = color == blocks[block] ? DROP_TIME + solve(block + 1, target, seen)
+                        : solve(block, target, seen);
+                time += after * Integer.bitCount(seen) / count;
+            }
+        }
+        return time;
+    }
+
+    private double travelTime(int from, int to) {
+        return from == to ? 0 : timeModel.driveTime(basketDistance * (to - from)) + timeModel.stopTime();
+    }
+
+    private int state(int block, int basket, int mask) {
+        return (block * COLORS.length + basket) * (ALL + 1) + mask;
+    }
+
+    /**
+     * <p>Gets the arrangements that fit the scanned colors</p>
+     *
+     * @param baskets Scanned colors of the baskets, {@link Color#NO_COLOR} for unknown ones
+     * @return Bit mask of the arrangements or of all of them if none fits
+     */
+    private static int mask(Color[] baskets) {
+        int mask = 0;
+        for (int a = 0; a < ARRANGEMENTS.length; a++) {
+            boolean fits = true;
+            for (int basket = 0; basket < COLORS.length && fits; basket++) {
+                int index = indexOf(baskets[basket]);
+                fits = index < 0 || ARRANGEMENTS[a][basket] == index;
+            }
+            if (fits) {
+                mask |= 1 << a;
+            }
+        }
+        return mask == 0 ? ALL : mask;
+    }
+
+    /**
+     * <p>Gets the color all possible arrangements have at a basket</p>
+     *
+     * @param mask Bit mask of the possible arrangements
+     * @param basket The basket
+     * @return Index of the laundry color or -1 if the arrangements differ
+     */
+    private static int colorAt(int mask, int basket) {
+        int color = -1;
+        for (int a = 0; a < ARRANGEMENTS.length; a++) {
+            if ((mask & (1 << a)) != 0) {
+                if (color >= 0 && ARRANGEMENTS[a][basket] != color) {
+                    return -1;
+                }
+                color = ARRANGEMENTS[a][basket];
+            }
+        }
+        return color;
+    }
+
+    private static int[][] arrangements() {
+        int[][] result = new int[6][];
+        int i = 0;
+        for (int a = 0; a < 3; a++) {
+            for (int b = 0; b < 3; b++) {
+                if (b != a) {
+                    result[i++] = new int[]{a, b, 3 - a - b};
+                }
+            }
+        }
+        return result;
+    }
+}
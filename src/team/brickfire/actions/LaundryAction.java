@@ -2,9 +2,13 @@ package team.brickfire.actions;
 
 import team.brickfire.data.color.Color;
 import team.brickfire.data.color.ColorMap;
+import team.brickfire.data.color.ColorVote;
+import team.brickfire.data.color.DistanceScan;
 import team.brickfire.data.color.LaundryBasketColorMap;
 import team.brickfire.data.color.AdvancedColor;
+import team.brickfire.data.color.LaundryAssignment;
 import team.brickfire.robot_parts.arms.WaterBottleArm;
+import team.brickfire.robot_parts.base.ControlStep;
 
 import java.util.*;
 
@@ -18,11 +22,25 @@ public final class LaundryAction extends BaseAction {
 
     // TODO: figure these two constants out
     private static final double BASKET_DISTANCE = 10.5;
+    // Baskets are scanned this far before and after the point the robot used to stop at, in cm
+    private static final double BASKET_WINDOW = 2.5;
+    private static final double SCAN_SPEED = 30;
+    // Probability that more scans wouldn't change the color, needed to end a standing basket scan early
+    private static final double SCAN_CONFIDENCE = 0.9;
+    private static final double DRIVING_SPEED = 100;
+    // Drive legs of the drop off before the unknown baskets are guessed instead of scanned
+    private static final int MAX_LEGS = 10;
+    private static final int FINAL_BASKET = 2;
+    // Distance driven between two basket samples in cm
+    private static final double SCAN_STEP = 0.05;
+    // Enough for 25cm at one sample per step
+    private static final int SCAN_CAPACITY = 512;
 
     private static LaundryAction instance;
     private List<AdvancedColor> blockScans;
     private final Color[] baskets;
     private final ColorMap colorMap;
+    private final DistanceScan basketScan;
 
     private Queue<Color> blocks;
 
@@ -34,6 +52,7 @@ public final class LaundryAction extends BaseAction {
         this.blockScans = new ArrayList<>();
         baskets = new Color[]{Color.NO_COLOR, Color.NO_COLOR, Color.NO_COLOR};
         colorMap = new LaundryBasketColorMap();
+        basketScan = new DistanceScan(SCAN_CAPACITY);
     }
 
     /**
@@ -49,14 +68,13 @@ public final class LaundryAction extends BaseAction {
     }
 
     /**
-     * <p>Scans the block under the sensor</p>
+     * <p>Enters the scan of a block</p>
      *
-     * @param prev The before already entered scan
+     * @param scan The scan of the block
      */
-    public void enterScan(AdvancedColor prev) {
-        prev.setErrorValues(colorSensorBlocks, colorMap);
-        blockScans.add(prev);
-        System.out.println("Laundry block: " + prev.getColor() + " " + prev.error());
+    public void enterScan(AdvancedColor scan) {
+        blockScans.add(scan);
+        System.out.println("Laundry block: " + scan.getColor() + " " + scan.error());
     }
 
     /**
@@ -65,53 +83,128 @@ public final class LaundryAction extends BaseAction {
      * @return The laundry basket the robot finishes this method in front of (0 = west; 1 = center; 2 = east)
      */
     public int deliverBlocks() {
-        setDrivingSpeed(100, 200);
-        blocks = evaluateLaundryBlocks();
+        return deliverBlocks(FINAL_BASKET);
+    }
+
+    /**
+     * <p>Puts the laundry blocks into the correct baskets</p>
+     * <p>Starting position is in front of the first east basket. The baskets are driven to in the order the
+     * {@link DropOffPlanner} expects to be the fastest, including scans of baskets the drive-by missed. If the scans keep
+     * contradicting each other, the unknown baskets are guessed after {@value #MAX_LEGS} legs, so the drop off always ends</p>
+     *
+     * @param finish The laundry basket the robot should finish in front of (0 = west; 1 = center; 2 = east)
+     * @return The laundry basket the robot finishes this method in front of
+     */
+    public int deliverBlocks(int finish) {
+        setDrivingSpeed(DRIVING_SPEED, 200);
+        LaundryAssignment assignment = evaluateLaundryBlocks(blockScans);
+        System.out.println("Laundry blocks: " + assignment);
+        blocks = new LinkedList<>(Arrays.asList(assignment.getBlocks()));
         System.out.println("Blocks stored: " + blocks);
 
-        Color[] allColors = new Color[]{Color.YELLOW, Color.RED, Color.BLACK};
-        int currentBasket = 0;
+        int currentBasket = scanBaskets();
+        System.out.println("Baskets scanned : " + Arrays.toString(baskets));
 
-        // Scan baskets
-        for (int i = 0; i < baskets.length - 1; i++) {
-            baskets[i] = colorSensorBaskets.getColor(colorMap, 10);
-            if (baskets[i] == null) {
-                baskets[i] = Color.BLACK;
+        DropOffPlanner planner = new DropOffPlanner(blocks.toArray(new Color[0]), finish, BASKET_DISTANCE,
+                DRIVING_SPEED);
+        System.out.println("Expected drop off time: " + planner.getExpectedTime(0, currentBasket, baskets));
+        int block = 0;
+        int legs = 0;
+        while (!blocks.isEmpty()) {
+            if (++legs > MAX_LEGS && Arrays.asList(baskets).contains(Color.NO_COLOR)) {
+                DropOffPlanner.complete(baskets);
+                System.out.println("Baskets guessed : " + Arrays.toString(baskets));
             }
-            for (int j = 0; j < allColors.length; j++) {
-                if (baskets[i] == allColors[j]) {
-                    allColors[j] = Color.NO_COLOR;
-                }
+            int target = planner.next(block, currentBasket, baskets);
+            drive(BASKET_DISTANCE * (target - currentBasket));
+            currentBasket = target;
+            if (DropOffPlanner.getColor(baskets, target) == null) {
+                scanBasket(target);
             }
-
-            if (blocks.peek() == baskets[i]) {
+            if (DropOffPlanner.indexOf(blocks.peek()) < 0
+                    || DropOffPlanner.getColor(baskets, target) == blocks.peek()) {
                 dropOffBlock();
+                block++;
             }
+        }
+        drive(BASKET_DISTANCE * (finish - currentBasket));
+        return finish;
+    }
 
-            if (i < baskets.length - 2) {
-                drive(BASKET_DISTANCE);
-                currentBasket = i + 1;
+    /**
+     * <p>Scans every basket but the last while driving past them without stopping</p>
+     * <p>The basket sensor is read every {@value #SCAN_STEP}cm on the control loop and every sample is tagged with
+     * the distance driven. The samples around the position of each basket are then voted on, baskets without
+     * samples stay unknown</p>
+     *
+     * @return The basket the robot stops in front of
+     */
+    private int scanBaskets() {
+        int last = baskets.length - 2;
+        basketScan.clear();
+        resetDistance();
+        setDrivingSpeed(SCAN_SPEED, 200);
+        drive(BASKET_DISTANCE * last, true);
+        runControlLoop(new ControlStep() {
+            private double next;
+            private boolean full;
+
+            @Override
+            public boolean step(double dt) {
+                double distance = getDistance();
+                if (!full && distance >= next) {
+                    if (basketScan.add(colorSensorBaskets.getColor(), distance)) {
+                        next = distance + SCAN_STEP;
+                    } else {
+                        full = true;
+                        System.out.println("Basket scan full at " + distance + "cm");
+                    }
+                }
+                return isMoving();
             }
-        }
-        for (Color allColor : allColors) {
-            if (allColor != Color.NO_COLOR) {
-                baskets[baskets.length - 1] = allColor;
-                break;
+        });
+        setDrivingSpeed(DRIVING_SPEED, 200);
+
+        Arrays.fill(baskets, Color.NO_COLOR);
+        for (int i = 0; i <= last; i++) {
+            ColorVote vote = basketScan.classify(colorMap, BASKET_DISTANCE * i - BASKET_WINDOW,
+                    BASKET_DISTANCE * i + BASKET_WINDOW);
+            System.out.println("Basket " + i + ": " + vote);
+            Color color = vote.getColor();
+            if (DropOffPlanner.indexOf(color) < 0) {
+                continue;
+            }
+            // Two baskets can't have the same color, so neither scan can be trusted
+            for (int j = 0; j < i; j++) {
+                if (baskets[j] == color) {
+                    baskets[j] = Color.NO_COLOR;
+                    color = Color.NO_COLOR;
+                }
             }
+            baskets[i] = color;
         }
+        return last;
+    }
 
-        System.out.println("Baskets scanned : " + Arrays.toString(baskets));
-
-        // deliver remaining blocks
-        while (!blocks.isEmpty()) {
-            int dist = getDistanceToCorrectBasket(currentBasket);
-            drive(BASKET_DISTANCE * dist);
-            currentBasket += dist;
-            dropOffBlock();
+    /**
+     * <p>Scans the basket the robot stands in front of</p>
+     * <p>This scan is trusted more than the ones of the drive-by, so another basket with the same color becomes
+     * unknown again</p>
+     *
+     * @param basket The basket
+     */
+    private void scanBasket(int basket) {
+        Color color = colorSensorBaskets.getColor(colorMap, 10, SCAN_CONFIDENCE);
+        if (DropOffPlanner.indexOf(color) < 0) {
+            color = Color.BLACK;
         }
-        drive(BASKET_DISTANCE * (2 - currentBasket));
-        currentBasket = 2;
-        return currentBasket;
+        for (int i = 0; i < baskets.length; i++) {
+            if (baskets[i] == color) {
+                baskets[i] = Color.NO_COLOR;
+            }
+        }
+        baskets[basket] = color;
+        System.out.println("Basket " + basket + ": " + color);
     }
 
     private void dropOffBlock() {
@@ -120,88 +213,17 @@ public final class LaundryAction extends BaseAction {
         waterBottleArm.move(WaterBottleArm.ZERO);
     }
 
-    private int getDistanceToCorrectBasket(int currentBasket) {
-        for (int i = 0; i < baskets.length; i++) {
-            if (baskets[i] == blocks.peek()) {
-                return i - currentBasket;
-            }
-        }
-        return 0;
-    }
-
-
-    private Queue<Color> evaluateLaundryBlocks() {
-
-        Color[] allColors = new Color[]{Color.YELLOW, Color.RED, Color.BLACK};
-        List<Color> foundColors = new ArrayList<>();
-
-        // if by any chance we actually only scanned 3 blocks and the last was something different
-        for (AdvancedColor color : blockScans) {
-            Color c = color.getColor();
-            if (c != Color.NONE_MATCHING && c != Color.NO_COLOR) {
-                foundColors.add(c);
-            }
-        }
-        if (validList(foundColors, allColors)) {
-            return new LinkedList<>(foundColors);
-        }
-
-        // Throw out blocks with the smallest error, till only one block remains
-        // The Smallest error ==> Most likely to have seen the floor in both scans
-        ArrayList<AdvancedColor> nonErrorColors;
-        int blackCount, redCount, yellowCount;
-        do {
-            double minError = blockScans.get(0).error();
-            double minErrorIndex = 0;
-            for (int i = 1; i < blockScans.size(); i++) {
-                if (blockScans.get(i).error() < minError) {
-                    minError = blockScans.get(i).error();
-                    minErrorIndex = i;
-                }
-            }
-
-            nonErrorColors = new ArrayList<>();
-            blackCount = 0;
-            redCount = 0;
-            yellowCount = 0;
-            for (int i = 0; i < blockScans.size(); i++) {
-                if (i != minErrorIndex) {
-                    nonErrorColors.add(blockScans.get(i));
-                    if (blockScans.get(i).getColor() == Color.BLACK) {
-                        blackCount++;
-                    }
-                    if (blockScans.get(i).getColor() == Color.RED) {
-                        redCount++;
-                    }
-                    if (blockScans.get(i).getColor() == Color.YELLOW) {
-                        yellowCount++;
-                    }
-                }
-            }
-            blockScans = new ArrayList<>(nonErrorColors);
-        } while (blackCount > 1 || redCount > 1 || yellowCount > 1);
 
-        foundColors = new ArrayList<>();
-        for (AdvancedColor nonErrorColor : nonErrorColors) {
-            foundColors.add(nonErrorColor.getColor());
-        }
-
-        return new LinkedList<>(foundColors);
-
-    }
-
-    private boolean validList(List<Color> list, Color[] allColors) {
-        System.out.println(list.size() + " " + allColors.length);
-        if (list.size() > allColors.length) {
-            return false;
-        }
-        boolean error = false;
-        for (Color color : allColors) {
-            if (!list.contains(color)) {
-                error = true;
-                break;
-            }
-        }
-        return !error;
+    /**
+     * <p>Finds the most probable colors of the scanned blocks</p>
+     * <p>The blocks can't be scanned again once they are collected, so if the scans are ambiguous the scans with the
+     * smallest error are taken as the floor, see {@link LaundryAssignment#evaluate(List)}. Doesn't use the robot, so
+     * it can be benchmarked on its own</p>
+     *
+     * @param blockScans Scans of the blocks in the order they were collected
+     * @return Assignment of the colors to the blocks
+     */
+    static LaundryAssignment evaluateLaundryBlocks(List<AdvancedColor> blockScans) {
+        return LaundryAssignment.evaluate(blockScans);
     }
 }
@@ -2,9 +2,12 @@ package team.brickfire.actions;
 
 import team.brickfire.data.color.AdvancedColor;
 import team.brickfire.data.color.Color;
+import team.brickfire.data.color.ColorVote;
 import team.brickfire.data.color.LaundryBlockColorMap;
+import team.brickfire.data.color.RoomAssignment;
 import team.brickfire.data.color.RoomBlockColorMap;
 import team.brickfire.robot_parts.arms.BlockArm;
+import team.brickfire.robot_parts.base.ControlStep;
 
 /**
  * <p>Action for doing a side of the playing field</p>
@@ -14,14 +17,20 @@ import team.brickfire.robot_parts.arms.BlockArm;
  */
 public class Side extends BaseAction {
 
+    // Room blocks are streamed this far before the robot stops in front of them, in cm
+    private static final double SCAN_WINDOW = 4;
+    private static final int SCAN_SAMPLES = 10;
+    private static final double SCAN_CONFIDENCE = 0.9;
+    // Likelihood of a scan classified by rgb for the color it saw
+    private static final double CLASSIFIED_LIKELIHOOD = 0.9;
+    private static final RoomBlockColorMap ROOM_BLOCK_MAP = new RoomBlockColorMap();
+    // Shared by both sides, since the rooms of one side tell something about the other's
+    private static final RoomAssignment ROOM_ASSIGNMENT = new RoomAssignment();
+
     private final LaundryAction laundryAction;
     private final WaterBottleAction waterBottleAction;
     private final boolean east;
 
-    private static int greenRooms = 0;
-
-    private static int whiteRooms = 0;
-
     /**
      * <p>Creates a new Side object</p>
      *
@@ -51,6 +60,7 @@ public class Side extends BaseAction {
 
         private Color roomColor;
         private final boolean thingsOnLeft;
+        private final int index;
 
 
         /**
@@ -59,6 +69,7 @@ public class Side extends BaseAction {
          */
         private Room(boolean thingsOnLeft) {
             this.thingsOnLeft = thingsOnLeft;
+            this.index = (east ? 0 : 2) + (thingsOnLeft ? 0 : 1);
         }
 
         /**
@@ -70,38 +81,35 @@ public class Side extends BaseAction {
         private void doRoom() {
             alignTrigonometry(20);
             setDrivingSpeed(100, 150);
+            double distance;
             if (east) {
                 if (thingsOnLeft) {
                     // green
-                    drive(13.2);
+                    distance = 13.2;
                 } else {
                     // red
-                    drive(12);
+                    distance = 12;
                 }
             } else {
                 if (thingsOnLeft) {
                     // yellow
-                    drive(11.8);
+                    distance = 11.8;
                 } else {
                     // blue
-                    drive(12.8);
+                    distance = 12.8;
                 }
             }
 
-            this.roomColor = colorSensorBlocks.getColor(new RoomBlockColorMap(), 10);
-            if (whiteRooms >= 2) {
-                roomColor = Color.GREEN;
-            } else if (greenRooms >= 2) {
-                roomColor = Color.WHITE;
-            }
-
-            if(roomColor == Color.WHITE) {
-                whiteRooms++;
+            int samples = ROOM_ASSIGNMENT.getSampleBudget(index, SCAN_SAMPLES);
+            if (samples == 0) {
+                drive(distance);
             } else {
-                greenRooms++;
+                scanWhileApproaching(distance, samples);
             }
+            this.roomColor = ROOM_ASSIGNMENT.getColor(index);
 
             System.out.println("\n Room color: " + roomColor);
+            System.out.println("Rooms: " + ROOM_ASSIGNMENT);
             blockArm.move(BlockArm.LOWEST.add(BlockArm.OPEN));
 
 
@@ -112,6 +120,34 @@ public class Side extends BaseAction {
             }
         }
 
+        /**
+         * <p>Drives up to the room block and scans it on the way</p>
+         * <p>The block sensor is read once per step of the control loop over the last {@value Side#SCAN_WINDOW}cm,
+         * see {@link ApproachScan}. The vote ends as soon as it is confident, so the room color is usually known when
+         * the robot arrives. If no vote ends on white or green, the block is scanned standing. The scan updates the
+         * {@link RoomAssignment}</p>
+         *
+         * @param distance Distance to the room block in cm
+         * @param samples Largest amount of scans of one vote
+         */
+        private void scanWhileApproaching(double distance, int samples) {
+            resetDistance();
+            drive(distance, true);
+            ApproachScan scan = new ApproachScan(distance - SCAN_WINDOW, samples);
+            runControlLoop(scan);
+
+            if (scan.decided) {
+                ROOM_ASSIGNMENT.observe(index, scan.vote);
+            } else if (ROOM_BLOCK_MAP.getClassifier() != null) {
+                Color color = colorSensorBlocks.getColor(ROOM_BLOCK_MAP, samples);
+                ROOM_ASSIGNMENT.observe(index, color == Color.GREEN ? CLASSIFIED_LIKELIHOOD : 1 - CLASSIFIED_LIKELIHOOD,
+                        color == Color.WHITE ? CLASSIFIED_LIKELIHOOD : 1 - CLASSIFIED_LIKELIHOOD);
+            } else {
+                ROOM_ASSIGNMENT.observe(index,
+                        colorSensorBlocks.getColorVote(ROOM_BLOCK_MAP, samples, SCAN_CONFIDENCE));
+            }
+        }
+
         /**
          * <p>Plays the game</p>
          */
@@ -150,4 +186,44 @@ public class Side extends BaseAction {
             turn(thingsOnLeft ? 18 : -16);
         }
     }
+
+    /**
+     * <p>Votes on the room block once per step of the control loop while the robot drives up to it</p>
+     * <p>Votes that end on anything but white or green, like the floor before the block, are started over</p>
+     *
+     * @version 1.0
+     * @author Team BrickFire
+     */
+    private final class ApproachScan implements ControlStep {
+
+        private final double start;
+        private final int samples;
+        private ColorVote vote;
+        private boolean decided;
+
+        /**
+         * <p>Creates the scan</p>
+         *
+         * @param start Driven distance to start scanning at in cm
+         * @param samples Largest amount of scans of one vote
+         */
+        private ApproachScan(double start, int samples) {
+            this.start = start;
+            this.samples = samples;
+            this.vote = new ColorVote(ROOM_BLOCK_MAP, samples, SCAN_CONFIDENCE);
+        }
+
+        @Override
+        public boolean step(double dt) {
+            if (!decided && getDistance() >= start && !vote.add(colorSensorBlocks.getColor())) {
+                if (vote.getColor() == Color.WHITE || vote.getColor() == Color.GREEN) {
+                    decided = true;
+                    System.out.println("Room block locked in at " + getDistance() + ": " + vote);
+                } else {
+                    vote = new ColorVote(ROOM_BLOCK_MAP, samples, SCAN_CONFIDENCE);
+                }
+            }
+            return isMoving();
+        }
+    }
 }
@@ -2,21 +2,33 @@ package team.brickfire.actions.circuit_drive;
 
 import team.brickfire.robot_parts.Robot;
 
+import java.util.List;
+
 /**
  * <p>Lets the robot drive around the network of black lines on the field</p>
+ * <p>The direction the robot faces is kept as a heading in degrees, so it can also drive the lines that don't
+ * point in one of the {@link CircuitOrientation orientations}</p>
  *
  * @author Team Brickfire
- * @version 3.0
+ * @version 4.0
  */
 public class CircuitDrive {
 
     private static final double DRIVING_SPEED = 50;
     private static final double TURNING_SPEED = 40;
+    // Radius of the arcs that replace turns on the spot when blending
+    private static final double ARC_RADIUS = 12;
+    // Sharper corners are still done by stopping and turning on the spot
+    private static final double MAX_ARC_ANGLE = 135;
 
     private final CircuitNetwork circuit;
+    private final TourPlanner tourPlanner;
+    private final PlanningWorker planningWorker;
     private final Robot robot;
-    private CircuitOrientation facing;
+    // Degrees counterclockwise from east
+    private double heading;
     private CircuitPosition position;
+    private boolean blending;
 
 
     /**
@@ -28,9 +40,11 @@ public class CircuitDrive {
      */
     public CircuitDrive(Robot robot, CircuitPosition startingPosition, CircuitOrientation startingOrientation) {
         super();
-        this.facing = startingOrientation;
+        this.heading = requireHeading(startingOrientation);
         this.position = startingPosition;
-        this.circuit = new CircuitNetwork();
+        this.circuit = new CircuitNetwork(DRIVING_SPEED, TURNING_SPEED);
+        this.tourPlanner = new TourPlanner(circuit);
+        this.planningWorker = new PlanningWorker(tourPlanner);
         this.robot = robot;
     }
 
@@ -38,29 +52,104 @@ public class CircuitDrive {
      * <p>Makes the robot drive to the specified place</p>
      *
      * @param goalPosition {@link CircuitPosition Position} the robot should stop in
-     * @param goalOrientation {@link CircuitOrientation Direction} the robot should face in after stopping
+     * @param goalOrientation {@link CircuitOrientation Direction} the robot should face in after stopping.
+     *                        {@link CircuitOrientation#NONE} keeps the direction it arrives in
      */
     public void driveTo(CircuitPosition goalPosition, CircuitOrientation goalOrientation) {
-        for (CircuitPosition c : circuit.getPath(position, goalPosition, facing, goalOrientation)) {
-            driveStraightDistance(c);
+        CircuitPosition[] path = circuit.getPath(position, goalPosition, heading, goalOrientation);
+        if (blending) {
+            driveBlended(path);
+        } else {
+            for (CircuitPosition c : path) {
+                driveStraightDistance(c);
+            }
         }
         turnTo(goalOrientation);
     }
 
+    /**
+     * <p>Makes the robot drive to the specified place while the tour through the next stops gets planned in the
+     * background</p>
+     * <p>Calling {@link #driveThrough(List)} with the same stops afterwards uses that plan instead of planning
+     * while standing</p>
+     *
+     * @param goalPosition {@link CircuitPosition Position} the robot should stop in
+     * @param goalOrientation {@link CircuitOrientation Direction} the robot should face in after stopping.
+     *                        {@link CircuitOrientation#NONE} keeps the direction it arrives in
+     * @param nextStops {@link CircuitPosition Positions} the robot visits after this, in any order
+     */
+    public void driveTo(CircuitPosition goalPosition, CircuitOrientation goalOrientation,
+                        List<CircuitPosition> nextStops) {
+        int headingId = requireHeadingId();
+        planningWorker.request(goalPosition, circuit.getEndHeadingId(position, goalPosition, headingId,
+                goalOrientation), nextStops);
+        driveTo(goalPosition, goalOrientation);
+    }
+
+    /**
+     * <p>Makes the robot drive to every given place in the fastest order</p>
+     *
+     * @param stops {@link CircuitPosition Positions} to visit, in any order
+     */
+    public void driveThrough(List<CircuitPosition> stops) {
+        driveThrough(planningWorker.take(position, requireHeadingId(), stops));
+    }
+
+    /**
+     * <p>Gets how much planning was done in the background while driving and how much while standing</p>
+     *
+     * @return Description of the planning times
+     */
+    public String getPlanningStatistics() {
+        return planningWorker.toString();
+    }
+
+    /**
+     * <p>Makes the robot drive along a planned tour</p>
+     *
+     * @param plan Plan to drive
+     */
+    public void driveThrough(TourPlan plan) {
+        for (int i = 0; i < plan.size(); i++) {
+            driveTo(plan.getPosition(i), plan.getOrientation(i));
+        }
+    }
+
+    /**
+     * <p>Plans the fastest tour from the current position through every given place</p>
+     * <p>Both the order of the stops and the orientation the robot stops in at each of them are chosen to minimize
+     * the total time, including the turn into the next leg</p>
+     *
+     * @param stops {@link CircuitPosition Positions} to visit, in any order
+     * @param finish {@link CircuitPosition Position} to end in after every stop was visited or null if the tour ends
+     *               at the last stop
+     * @param finishOrientation {@link CircuitOrientation Direction} the robot should face at the finish
+     * @return The planned tour
+     */
+    public TourPlan planTour(List<CircuitPosition> stops, CircuitPosition finish,
+                             CircuitOrientation finishOrientation) {
+        return tourPlanner.plan(position, requireHeadingId(), stops, finish, finishOrientation);
+    }
+
+    /**
+     * <p>Sets whether the robot drives through the corners of a path on an arc instead of stopping and turning on
+     * the spot</p>
+     *
+     * @param blending True for driving arcs, false for stopping at every corner
+     */
+    public void setBlending(boolean blending) {
+        this.blending = blending;
+    }
+
     /**
      * <p>Makes the robot turn to the said {@link CircuitOrientation Orientation}</p>
      *
-     * @param goalOrientation Orientation the robot should turn to
+     * @param goalOrientation Orientation the robot should turn to. {@link CircuitOrientation#NONE} doesn't turn
      */
     public void turnTo(CircuitOrientation goalOrientation) {
-        if (facing == goalOrientation) {
-            return;
+        if (goalOrientation != CircuitOrientation.NONE) {
+            turnTo(goalOrientation.getHeading());
         }
-
-        Vector2D v1 = facing.getAsVector();
-        Vector2D v2 = goalOrientation.getAsVector();
-        robot.turn((Vector2D.angle(v1, v2)) * (v1.getX() * v2.getY() - v2.getX() * v1.getY()), TURNING_SPEED);
-        facing = goalOrientation;
     }
 
     /**
@@ -70,17 +159,102 @@ public class CircuitDrive {
      * @param orientation Robots new orientation
      */
     public void setPosition(CircuitPosition position, CircuitOrientation orientation) {
+        setPosition(position, requireHeading(orientation));
+    }
+
+    /**
+     * <p>Sets the current {@link CircuitOrientation position} for when the robot was moved by other means than this
+     * action and stands on a line that doesn't point in one of the {@link CircuitOrientation orientations}</p>
+     *
+     * @param position Robots new position
+     * @param heading Robots new heading in degrees, counterclockwise from east
+     */
+    public void setPosition(CircuitPosition position, double heading) {
         this.position = position;
-        this.facing = orientation;
+        this.heading = heading;
+    }
+
+    /**
+     * <p>Makes the robot turn to the given heading the shortest way</p>
+     *
+     * @param goalHeading Heading in degrees, counterclockwise from east
+     */
+    private void turnTo(double goalHeading) {
+        double angle = Vector2D.turn(heading, goalHeading);
+        if (angle != 0) {
+            robot.turn(angle, TURNING_SPEED);
+        }
+        heading = goalHeading;
     }
 
     private void driveStraightDistance(CircuitPosition goalPosition) {
-        Vector2D dif = goalPosition.getAsVector().subtract(position.getAsVector());
-        turnTo(CircuitOrientation.get(dif.normalized()));
+        double dx = goalPosition.getAsVector().getX() - position.getAsVector().getX();
+        double dy = goalPosition.getAsVector().getY() - position.getAsVector().getY();
+        turnTo(Vector2D.heading(dx, dy));
         robot.resetDistance();
-        robot.lineFollowing(dif.length(), DRIVING_SPEED);
+        robot.lineFollowing(Vector2D.length(dx, dy), DRIVING_SPEED);
         position = goalPosition;
         robot.alignMotorRotations();
     }
 
+    /**
+     * <p>Drives the path without stopping at its corners</p>
+     * <p>Each corner is cut by an arc that starts and ends at the tangent points on the two lines. The line
+     * following before the corner ends at the first tangent point and the one after it starts at the second. Corners
+     * that are too sharp or too close to the end of a line are done by stopping and turning instead</p>
+     *
+     * @param path Positions the robot would stop in when not blending
+     */
+    private void driveBlended(CircuitPosition[] path) {
+        // Length of the current line that was already driven on the arc into it
+        double entry = 0;
+        for (int i = 0; i < path.length; i++) {
+            double dx = path[i].getAsVector().getX() - position.getAsVector().getX();
+            double dy = path[i].getAsVector().getY() - position.getAsVector().getY();
+            double length = Vector2D.length(dx, dy);
+            if (entry == 0) {
+                turnTo(Vector2D.heading(dx, dy));
+            }
+
+            double corner = 0;
+            double exit = 0;
+            if (i + 1 < path.length) {
+                double nextDx = path[i + 1].getAsVector().getX() - path[i].getAsVector().getX();
+                double nextDy = path[i + 1].getAsVector().getY() - path[i].getAsVector().getY();
+                corner = Vector2D.turn(heading, Vector2D.heading(nextDx, nextDy));
+                exit = ARC_RADIUS * Math.tan(Math.toRadians(Math.abs(corner)) / 2);
+                if (Math.abs(corner) > MAX_ARC_ANGLE || entry + exit > length
+                        || exit > Vector2D.length(nextDx, nextDy)) {
+                    exit = 0;
+                }
+            }
+
+            robot.resetDistance();
+            robot.lineFollowing(length - entry - exit, DRIVING_SPEED, exit == 0);
+            position = path[i];
+            if (exit > 0) {
+                robot.arcWithoutStopping(ARC_RADIUS, corner, DRIVING_SPEED);
+                heading += corner;
+            } else {
+                robot.alignMotorRotations();
+            }
+            entry = exit;
+        }
+    }
+
+    private int requireHeadingId() {
+        int headingId = circuit.getHeadingId(heading);
+        if (headingId < 0) {
+            throw new IllegalStateException("No line or orientation has the current heading " + heading);
+        }
+        return headingId;
+    }
+
+    private static double requireHeading(CircuitOrientation orientation) {
+        if (orientation == CircuitOrientation.NONE) {
+            throw new IllegalArgumentException("Orientation NONE has no direction");
+        }
+        return orientation.getHeading();
+    }
+
 }
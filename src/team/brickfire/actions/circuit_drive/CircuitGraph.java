@@ -0,0 +1,289 @@
+package team.brickfire.actions.circuit_drive;
+
+/**
+ * <p>Compact representation of the lines between the {@link CircuitPosition positions} as a graph <br>
+ * Nodes are the ordinals of the positions. Every line is stored as two directed edges, grouped by the node they
+ * start in (<a href="https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)">
+ * compressed sparse row</a>)</p>
+ * <p>Length and heading of every edge are calculated once, so looking anything up doesn't allocate. Every distinct
+ * heading of an edge or {@link CircuitOrientation orientation} gets an id and the turns between all of them are
+ * kept in a table</p>
+ * <p>Used in {@link CircuitNetwork}</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+class CircuitGraph {
+
+    private static final CircuitPosition[] POSITIONS = CircuitPosition.values();
+    private static final CircuitOrientation[] ORIENTATIONS = CircuitOrientation.values();
+    // Turns smaller than this are treated as driving straight on
+    private static final double STRAIGHT_TOLERANCE = 0.5;
+
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] reverses;
+    private final double[] lengths;
+    private final double[] headings;
+
+    private final int[] edgeHeadingIds;
+    private final int[] orientationHeadingIds;
+    private final double[] headingValues;
+    private final int headingCount;
+    private final double[] turnAngles;
+
+    /**
+     * <p>Creates the graph</p>
+     *
+     * @param lines Pairs of positions that are connected by a line
+     */
+    public CircuitGraph(CircuitPosition[][] lines) {
+        offsets = new int[POSITIONS.length + 1];
+        sources = new int[lines.length * 2];
+        targets = new int[lines.length * 2];
+        reverses = new int[lines.length * 2];
+        lengths = new double[lines.length * 2];
+        headings = new double[lines.length * 2];
+
+        // Count the edges of every node and let offsets point behind the last edge of each node
+        for (CircuitPosition[] line : lines) {
+            offsets[line[0].ordinal() + 1]++;
+            offsets[line[1].ordinal() + 1]++;
+        }
+        for (int i = 0; i < POSITIONS.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        int[] next = new int[POSITIONS.length];
+        System.arraycopy(offsets, 0, next, 0, POSITIONS.length);
+        for (CircuitPosition[] line : lines) {
+            int a = line[0].ordinal();
+            int b = line[1].ordinal();
+            int forward = next[a]++;
+            int backward = next[b]++;
+            setEdge(forward, a, b);
+            setEdge(backward, b, a);
+            reverses[forward] = backward;
+            reverses[backward] = forward;
+        }
+
+        // Give every distinct heading an id
+        headingValues = new double[targets.length + ORIENTATIONS.length];
+        edgeHeadingIds = new int[targets.length];
+        orientationHeadingIds = new int[ORIENTATIONS.length];
+        int count = 0;
+        for (CircuitOrientation orientation : ORIENTATIONS) {
+            if (orientation == CircuitOrientation.NONE) {
+                orientationHeadingIds[orientation.ordinal()] = -1;
+            } else {
+                orientationHeadingIds[orientation.ordinal()] = count;
+                headingValues[count++] = orientation.getHeading();
+            }
+        }
+        for (int edge = 0; edge < targets.length; edge++) {
+            int id = 0;
+            while (id < count && Math.abs(Vector2D.turn(headingValues[id], headings[edge])) >= STRAIGHT_TOLERANCE) {
+                id++;
+            }
+            if (id == count) {
+                headingValues[count++] = headings[edge];
+            }
+            edgeHeadingIds[edge] = id;
+        }
+        headingCount = count;
+
+        turnAngles = new double[headingCount * headingCount];
+        for (int from = 0; from < headingCount; from++) {
+            for (int to = 0; to < headingCount; to++) {
+                double angle = Math.abs(Vector2D.turn(headingValues[from], headingValues[to]));
+                turnAngles[from * headingCount + to] = angle < STRAIGHT_TOLERANCE ? 0 : angle;
+            }
+        }
+    }
+
+    private void setEdge(int edge, int source, int target) {
+        double dx = POSITIONS[target].getAsVector().getX() - POSITIONS[source].getAsVector().getX();
+        double dy = POSITIONS[target].getAsVector().getY() - POSITIONS[source].getAsVector().getY();
+        sources[edge] = source;
+        targets[edge] = target;
+        lengths[edge] = Vector2D.length(dx, dy);
+        headings[edge] = Vector2D.heading(dx, dy);
+    }
+
+    /**
+     * <p>Gets the amount of nodes</p>
+     *
+     * @return Amount of nodes
+     */
+    public int nodeCount() {
+        return POSITIONS.length;
+    }
+
+    /**
+     * <p>Gets the amount of directed edges</p>
+     *
+     * @return Amount of edges, twice the amount of lines
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * <p>Gets the first edge starting in the node</p>
+     *
+     * @param node Node to get the edges of
+     * @return Index of the first edge
+     */
+    public int firstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * <p>Gets the index behind the last edge starting in the node</p>
+     *
+     * @param node Node to get the edges of
+     * @return Index behind the last edge
+     */
+    public int endEdge(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * <p>Gets the node the edge starts in</p>
+     *
+     * @param edge Index of the edge
+     * @return Node the edge starts in
+     */
+    public int source(int edge) {
+        return sources[edge];
+    }
+
+    /**
+     * <p>Gets the node the edge leads to</p>
+     *
+     * @param edge Index of the edge
+     * @return Node the edge leads to
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * <p>Gets the edge going the opposite way along the same line</p>
+     *
+     * @param edge Index of the edge
+     * @return Index of the reversed edge
+     */
+    public int reverse(int edge) {
+        return reverses[edge];
+    }
+
+    /**
+     * <p>Gets the length of the edge</p>
+     *
+     * @param edge Index of the edge
+     * @return Length in cm
+     */
+    public double length(int edge) {
+        return lengths[edge];
+    }
+
+    /**
+     * <p>Gets the direction the robot faces while driving along the edge</p>
+     *
+     * @param edge Index of the edge
+     * @return Heading in degrees, counterclockwise from east (-180 to 180)
+     */
+    public double heading(int edge) {
+        return headings[edge];
+    }
+
+    /**
+     * <p>Gets the id of the heading of the edge</p>
+     *
+     * @param edge Index of the edge
+     * @return Id of the heading
+     */
+    public int headingId(int edge) {
+        return edgeHeadingIds[edge];
+    }
+
+    /**
+     * <p>Gets the id of the heading of an orientation</p>
+     *
+     * @param orientation The orientation
+     * @return Id of the heading or -1 for {@link CircuitOrientation#NONE}
+     */
+    public int headingId(CircuitOrientation orientation) {
+        return orientationHeadingIds[orientation.ordinal()];
+    }
+
+    /**
+     * <p>Gets the id of a heading</p>
+     *
+     * @param heading Heading in degrees, counterclockwise from east
+     * @return Id of the heading or -1 if no edge or orientation has this heading
+     */
+    public int headingId(double heading) {
+        for (int id = 0; id < headingCount; id++) {
+            if (Math.abs(Vector2D.turn(headingValues[id], heading)) < STRAIGHT_TOLERANCE) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * <p>Gets the amount of distinct headings</p>
+     *
+     * @return Amount of heading ids
+     */
+    public int headingCount() {
+        return headingCount;
+    }
+
+    /**
+     * <p>Gets the heading with the given id</p>
+     *
+     * @param headingId Id of the heading
+     * @return Heading in degrees, counterclockwise from east (-180 to 180)
+     */
+    public double headingValue(int headingId) {
+        return headingValues[headingId];
+    }
+
+    /**
+     * <p>Looks up how many degrees the robot turns when changing from one heading to another</p>
+     *
+     * @param fromHeadingId Id of the heading before turning
+     * @param toHeadingId Id of the heading after turning or -1 if any heading is fine
+     * @return Angle between 0 and 180 degrees. Angles within the tolerance for driving straight are 0
+     */
+    public double turnAngle(int fromHeadingId, int toHeadingId) {
+        if (toHeadingId < 0) {
+            return 0;
+        }
+        return turnAngles[fromHeadingId * headingCount + toHeadingId];
+    }
+
+    /**
+     * <p>Gets the node of a position</p>
+     *
+     * @param position Position of the node
+     * @return The node
+     */
+    public static int node(CircuitPosition position) {
+        return position.ordinal();
+    }
+
+    /**
+     * <p>Gets the position of a node</p>
+     *
+     * @param node The node
+     * @return Position of the node
+     */
+    public static CircuitPosition position(int node) {
+        return POSITIONS[node];
+    }
+}
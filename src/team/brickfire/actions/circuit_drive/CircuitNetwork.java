@@ -1,349 +1,350 @@
 package team.brickfire.actions.circuit_drive;
 
-import java.util.Set;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Arrays;
-import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Queue;
-import java.util.LinkedList;
 
 /**
  * <p>Representation of the network of lines on the field</p>
+ * <p>Paths are weighed by the time the robot needs to drive them, estimated by a {@link DrivingTimeModel}</p>
  *
  * @author Team BrickFire
- * @version 2.0
+ * @version 4.0
  */
 class CircuitNetwork {
 
-    private final Set<GraphNode> graph;
+    private static final CircuitPosition[] POSITIONS = CircuitPosition.values();
+    private static final CircuitOrientation[] ORIENTATIONS = CircuitOrientation.values();
+    private static final CircuitPosition[] EMPTY_PATH = new CircuitPosition[0];
+
+    private static final CircuitPosition[][] LINES = {
+            {CircuitPosition.YELLOW_FAR, CircuitPosition.WEST_ROOMS_FAR},
+            {CircuitPosition.YELLOW_CLOSE, CircuitPosition.WEST_ROOMS_CLOSE},
+            {CircuitPosition.BLUE_FAR, CircuitPosition.WEST_ROOMS_FAR},
+            {CircuitPosition.BLUE_CLOSE, CircuitPosition.WEST_ROOMS_CLOSE},
+            {CircuitPosition.WEST_ROOMS_CLOSE, CircuitPosition.WEST_ROOMS_FAR},
+            {CircuitPosition.WEST_ROOMS_CLOSE, CircuitPosition.WEST},
+
+            {CircuitPosition.RED_FAR, CircuitPosition.EAST_ROOMS_FAR},
+            {CircuitPosition.RED_CLOSE, CircuitPosition.EAST_ROOMS_CLOSE},
+            {CircuitPosition.GREEN_FAR, CircuitPosition.EAST_ROOMS_FAR},
+            {CircuitPosition.GREEN_CLOSE, CircuitPosition.EAST_ROOMS_CLOSE},
+            {CircuitPosition.EAST_ROOMS_CLOSE, CircuitPosition.EAST_ROOMS_FAR},
+            {CircuitPosition.EAST_ROOMS_CLOSE, CircuitPosition.EAST},
+
+            {CircuitPosition.CENTER, CircuitPosition.NORTH},
+            {CircuitPosition.CENTER, CircuitPosition.EAST},
+            {CircuitPosition.CENTER, CircuitPosition.WEST},
+            {CircuitPosition.CENTER, CircuitPosition.SOUTH},
+
+            /* Taken out because figure was too close
+            {CircuitPosition.NORTH_WEST, CircuitPosition.NORTH}, */
+            {CircuitPosition.NORTH_WEST, CircuitPosition.WEST},
+            {CircuitPosition.NORTH_EAST, CircuitPosition.NORTH},
+            {CircuitPosition.NORTH_EAST, CircuitPosition.EAST},
+            {CircuitPosition.SOUTH_WEST, CircuitPosition.SOUTH},
+            {CircuitPosition.SOUTH_WEST, CircuitPosition.WEST},
+            {CircuitPosition.SOUTH_EAST, CircuitPosition.SOUTH},
+            {CircuitPosition.SOUTH_EAST, CircuitPosition.EAST}
+    };
+
+    private final CircuitGraph graph;
+    private final DrivingTimeModel timeModel;
+
+    // A state is the edge the robot entered its node by, the last state is the start
+    private final int startState;
+    private final IndexedMinHeap nextStates;
+    private final double[] stateCosts;
+    private final int[] parentStates;
+    private final boolean[] settled;
+    private final int[] pathEdges;
+    private int startNode;
+
+    private final CircuitPosition[][] routeTable;
+    private final double[] routeTimes;
+    private final int[] routeEndHeadings;
 
     /**
      * <p>Creates the network</p>
+     *
+     * @param drivingSpeed Speed at which the robot follows the lines (0-100% of maximum capability)
+     * @param turningSpeed Speed at which the robot turns on the nodes (0-100% of maximum capability)
      */
-    public CircuitNetwork() {
-        GraphNode center = new GraphNode(CircuitPosition.CENTER);
-        GraphNode north = new GraphNode(CircuitPosition.NORTH);
-        GraphNode northEast = new GraphNode(CircuitPosition.NORTH_EAST);
-        GraphNode east = new GraphNode(CircuitPosition.EAST);
-        GraphNode southEast = new GraphNode(CircuitPosition.SOUTH_EAST);
-        GraphNode south = new GraphNode(CircuitPosition.SOUTH);
-        GraphNode southWest = new GraphNode(CircuitPosition.SOUTH_WEST);
-        GraphNode west = new GraphNode(CircuitPosition.WEST);
-        GraphNode northWest = new GraphNode(CircuitPosition.NORTH_WEST);
-
-        GraphNode eastClose = new GraphNode(CircuitPosition.EAST_ROOMS_CLOSE);
-        GraphNode eastFar = new GraphNode(CircuitPosition.EAST_ROOMS_FAR);
-        GraphNode westClose = new GraphNode(CircuitPosition.WEST_ROOMS_CLOSE);
-        GraphNode westFar = new GraphNode(CircuitPosition.WEST_ROOMS_FAR);
-
-        GraphNode redClose = new GraphNode(CircuitPosition.RED_CLOSE);
-        GraphNode redFar = new GraphNode(CircuitPosition.RED_FAR);
-        GraphNode greenClose = new GraphNode(CircuitPosition.GREEN_CLOSE);
-        GraphNode greenFar = new GraphNode(CircuitPosition.GREEN_FAR);
-        GraphNode blueClose = new GraphNode(CircuitPosition.BLUE_CLOSE);
-        GraphNode blueFar = new GraphNode(CircuitPosition.BLUE_FAR);
-        GraphNode yellowClose = new GraphNode(CircuitPosition.YELLOW_CLOSE);
-        GraphNode yellowFar = new GraphNode(CircuitPosition.YELLOW_FAR);
-
-        yellowFar.addAdjacent(westFar);
-        yellowClose.addAdjacent(westClose);
-        blueFar.addAdjacent(westFar);
-        blueClose.addAdjacent(westClose);
-        westClose.addAdjacent(westFar);
-        westClose.addAdjacent(west);
-
-        redFar.addAdjacent(eastFar);
-        redClose.addAdjacent(eastClose);
-        greenFar.addAdjacent(eastFar);
-        greenClose.addAdjacent(eastClose);
-        eastClose.addAdjacent(eastFar);
-        eastClose.addAdjacent(east);
-
-        center.addAdjacent(north);
-        center.addAdjacent(east);
-        center.addAdjacent(west);
-        center.addAdjacent(south);
-
-        /* Taken out because figure was too close
-        northWest.addAdjacent(north); */
-        northWest.addAdjacent(west);
-        northEast.addAdjacent(north);
-        northEast.addAdjacent(east);
-        southWest.addAdjacent(south);
-        southWest.addAdjacent(west);
-        southEast.addAdjacent(south);
-        southEast.addAdjacent(east);
-
-        graph = new HashSet<>();
-        graph.addAll(Arrays.asList(center, north, northEast, east, southEast, south, southWest, west, northWest));
-        graph.addAll(Arrays.asList(east, eastClose, eastFar, greenClose, greenFar, redClose, redFar));
-        graph.addAll(Arrays.asList(west, westClose, westFar, yellowClose, yellowFar, blueClose, blueFar));
+    public CircuitNetwork(double drivingSpeed, double turningSpeed) {
+        timeModel = new DrivingTimeModel(drivingSpeed, turningSpeed);
+        graph = new CircuitGraph(LINES);
+
+        startState = graph.edgeCount();
+        nextStates = new IndexedMinHeap(startState + 1);
+        stateCosts = new double[startState + 1];
+        parentStates = new int[startState + 1];
+        settled = new boolean[startState + 1];
+        pathEdges = new int[startState];
+
+        int routes = POSITIONS.length * graph.headingCount() * POSITIONS.length * ORIENTATIONS.length;
+        routeTable = new CircuitPosition[routes][];
+        routeTimes = new double[routes];
+        routeEndHeadings = new int[routes];
+        buildRouteTable();
     }
 
     /**
      * <p>Returns the fastest path the robot can take to get from start to goal being orientated as given</p>
+     * <p>The path is looked up in the route table built when the network was created, so this does not search
+     * the graph. The returned array is shared and must not be modified</p>
      *
      * @param startPosition {@link CircuitPosition Position} the robots starts
      * @param endPosition {@link CircuitPosition Position} the robot stops in
      * @param startOrientation {@link CircuitOrientation Direction} the robot faces at start
-     * @param endOrientation {@link CircuitOrientation Direction} the robot should face at the end
+     * @param endOrientation {@link CircuitOrientation Direction} the robot should face at the end.
+     *                       {@link CircuitOrientation#NONE} if it doesn't matter
      * @return The positions on which the robot needs to stop/take a turn
      */
     public CircuitPosition[] getPath(CircuitPosition startPosition, CircuitPosition endPosition,
                                      CircuitOrientation startOrientation, CircuitOrientation endOrientation) {
-        List<GraphNode[]> allPaths = getAllShortestPaths(getNodeFromIdentifier(startPosition), getNodeFromIdentifier(endPosition));
-        GraphNode[] bestPath = getBestPath(allPaths, startOrientation.getAsVector(), endOrientation.getAsVector());
-        return makeDrivablePath(bestPath);
+        if (startOrientation == CircuitOrientation.NONE) {
+            throw new IllegalArgumentException("Orientation NONE has no direction to start in");
+        }
+        return getPath(startPosition, endPosition, startOrientation.getHeading(), endOrientation);
     }
 
     /**
-     * <p>Calculate the fastest path the robot could take out of a List of given paths</p>
-     * <p>Criterion are in the following priority: <ol>
-     *     <li>Total amount of degrees turned in path</li>
-     *     <li>Whether the path has a turn at the end</li>
-     *     <li>Amount of turns done in the path</li>
-     * </ol></p>
-     * @param paths All paths of the shortest length
-     * @param startOrientation {@link CircuitOrientation Direction} the robot faces at start
-     * @param goalOrientation {@link CircuitOrientation Direction} the robot should face at the end
-     * @return The best path
+     * <p>Returns the fastest path the robot can take to get from start to goal being orientated as given</p>
+     * <p>The path is looked up in the route table built when the network was created, so this does not search
+     * the graph. The returned array is shared and must not be modified</p>
+     *
+     * @param startPosition {@link CircuitPosition Position} the robots starts
+     * @param endPosition {@link CircuitPosition Position} the robot stops in
+     * @param startHeading Heading the robot faces at start in degrees, counterclockwise from east. Has to be the
+     *                     heading of a line or an {@link CircuitOrientation orientation}
+     * @param endOrientation {@link CircuitOrientation Direction} the robot should face at the end.
+     *                       {@link CircuitOrientation#NONE} if it doesn't matter
+     * @return The positions on which the robot needs to stop/take a turn
      */
-    private GraphNode[] getBestPath(List<GraphNode[]> paths, Vector2D startOrientation, Vector2D goalOrientation) {
-        if (paths == null || paths.isEmpty()) {
-            return new GraphNode[0];
-        }
-
-        double[] angles = new double[paths.size()];
-        boolean[] turnAtEnd = new boolean[paths.size()];
-        int[] turnAmount = new int[paths.size()];
-        int bestAmount = Integer.MAX_VALUE;
-        double bestAngle = Double.POSITIVE_INFINITY;
-
-        // Calculates: Amount of turns and degrees to turn for each path and whether a path has a turn as its last move
-        // as well as the smallest degree and smallest amount of turns any path has
-        for (int i = 0; i < paths.size(); i++) {
-            GraphNode[] curPath = paths.get(i);
-            Vector2D lastOrientation = startOrientation;
-            for (int j = 0; j < curPath.length - 1; j++) {
-                Vector2D curStep = curPath[j + 1].getPosition().subtract(curPath[j].getPosition());
-                double angle = Math.abs(Vector2D.angle(lastOrientation, curStep));
-                angles[i] += angle;
-                if (angle > 0) {
-                    turnAmount[i]++;
-                }
-                lastOrientation = curStep;
-            }
-            double angle = Math.abs(Vector2D.angle(goalOrientation, lastOrientation));
-            angles[i] += angle;
-            if (angle > 0) {
-                turnAmount[i]++;
-                turnAtEnd[i] = true;
-            }
-
-            if (angles[i] < bestAngle) {
-                bestAngle = angles[i];
-            }
-            if (turnAmount[i] < bestAmount) {
-                bestAmount = turnAmount[i];
-            }
-        }
-
-        // Determine all paths with the smallest sum of degrees turned in its path
-        // This is always at least one path
-        List<GraphNode[]> pathsWithSmallestDegreeSum = new ArrayList<>();
-        for (int i = 0; i < angles.length; i++) {
-            if (angles[i] <= bestAngle) {
-                pathsWithSmallestDegreeSum.add(paths.get(i));
-            }
-        }
-        // If only one is left our best path is found
-        if (pathsWithSmallestDegreeSum.size() == 1) {
-            return pathsWithSmallestDegreeSum.get(0);
-        }
-
-        // Determine all paths without a turn at the end
-        // This can be 0
-        List<GraphNode[]> pathsWithoutTurnAtEnd = new ArrayList<>();
-        for (int i = 0; i < pathsWithSmallestDegreeSum.size(); i++) {
-            if (!turnAtEnd[i]) {
-                pathsWithoutTurnAtEnd.add(pathsWithSmallestDegreeSum.get(i));
-            }
-        }
-        // If only one is left our best path is found
-        if (pathsWithoutTurnAtEnd.size() == 1) {
-            return pathsWithSmallestDegreeSum.get(0);
-        }
-        // If every path has a turn at the end, then we do the next step with the results from the degree sum
-        if (pathsWithoutTurnAtEnd.size() == 0) {
-            pathsWithoutTurnAtEnd = pathsWithSmallestDegreeSum;
-        }
-
-        // Determine all paths with the smallest sum of turns in its path
-        // This can be 0, because the one with the smallest amount may have been filtered out in a previous step
-        List<GraphNode[]> bestPaths3 = new ArrayList<>();
-        for (int i = 0; i < pathsWithoutTurnAtEnd.size(); i++) {
-            if (turnAmount[i] <= bestAmount) {
-                bestPaths3.add(paths.get(i));
-            }
+    public CircuitPosition[] getPath(CircuitPosition startPosition, CircuitPosition endPosition,
+                                     double startHeading, CircuitOrientation endOrientation) {
+        if (startPosition == null || endPosition == null) {
+            return EMPTY_PATH;
         }
-        // If no path meets this criteria, then we do the next step with the results from the turn at end check
-        if (bestPaths3.size() == 0) {
-            bestPaths3 = pathsWithSmallestDegreeSum;
+        int startHeadingId = graph.headingId(startHeading);
+        if (startHeadingId < 0) {
+            throw new IllegalArgumentException("No line or orientation has the heading " + startHeading);
         }
-
-        // If multiple paths are left, just choose the first one since they are all (nearly) equally good
-        return bestPaths3.get(0);
+        return routeTable[routeIndex(startPosition, endPosition, startHeadingId, endOrientation)];
     }
 
     /**
-     * <p>Implementation of the <a href="https://en.wikipedia.org/wiki/Breadth-first_search">Breadth-first search</a>
-     * to determine distance of every node from the given source</p>
+     * <p>Returns the estimated time the robot needs for the path returned by {@link #getPath(CircuitPosition,
+     * CircuitPosition, double, CircuitOrientation) getPath}, including the turns at start and end</p>
      *
-     * @param source Source for this algorithm. {@link CircuitPosition Position} the robot starts in
-     * @return Map containing every {@link GraphNode node} reachable from the source mapped to its distance from the
-     *          source
+     * @param startPosition {@link CircuitPosition Position} the robots starts
+     * @param endPosition {@link CircuitPosition Position} the robot stops in
+     * @param startHeadingId Id of the heading the robot faces at start
+     * @param endOrientation {@link CircuitOrientation Direction} the robot should face at the end.
+     *                       {@link CircuitOrientation#NONE} if it doesn't matter
+     * @return Time in seconds or positive infinity if the goal can't be reached
      */
-    private Map<GraphNode, Integer> bfs(GraphNode source) {
-        if (source == null) {
-            return new HashMap<>();
-        }
+    double getTime(CircuitPosition startPosition, CircuitPosition endPosition, int startHeadingId,
+                   CircuitOrientation endOrientation) {
+        return routeTimes[routeIndex(startPosition, endPosition, startHeadingId, endOrientation)];
+    }
 
-        Map<GraphNode, Integer> layers = new HashMap<>();
-        Queue<GraphNode> nextNodes = new LinkedList<>();
-        nextNodes.add(source);
-        layers.put(source, 0);
-        while (!nextNodes.isEmpty()) {
-            GraphNode u = nextNodes.poll();
-            for (GraphNode v : u.getAdjacent()) {
-                if (!layers.containsKey(v)) {
-                    nextNodes.add(v);
-                    layers.put(v, layers.get(u) + 1);
-                }
-            }
-        }
-        return layers;
+    /**
+     * <p>Returns the heading the robot faces after driving the path returned by {@link #getPath(CircuitPosition,
+     * CircuitPosition, double, CircuitOrientation) getPath} and turning into the end orientation</p>
+     *
+     * @param startPosition {@link CircuitPosition Position} the robots starts
+     * @param endPosition {@link CircuitPosition Position} the robot stops in
+     * @param startHeadingId Id of the heading the robot faces at start
+     * @param endOrientation {@link CircuitOrientation Direction} the robot should face at the end.
+     *                       {@link CircuitOrientation#NONE} if it doesn't matter
+     * @return Id of the heading at the end
+     */
+    int getEndHeadingId(CircuitPosition startPosition, CircuitPosition endPosition, int startHeadingId,
+                        CircuitOrientation endOrientation) {
+        return routeEndHeadings[routeIndex(startPosition, endPosition, startHeadingId, endOrientation)];
     }
 
     /**
-     * <p>Calculates all shortest paths from one {@link GraphNode node} to another in the graph</p>
+     * <p>Gets the id of a heading</p>
      *
-     * @param startingNode {@link GraphNode Node} of the {@link CircuitPosition position} the robot starts in.
-     * @param endNode {@link GraphNode Node} of the {@link CircuitPosition position} the robot should stop in.
-     * @return All shortest paths from startingNode to endNode
+     * @param heading Heading in degrees, counterclockwise from east
+     * @return Id of the heading or -1 if no line or orientation has this heading
      */
-    private List<GraphNode[]> getAllShortestPaths(GraphNode startingNode, GraphNode endNode) {
-        if (startingNode == null || endNode == null) {
-            return new ArrayList<>();
-        }
+    int getHeadingId(double heading) {
+        return graph.headingId(heading);
+    }
 
-        // Determine distances for every node from the starting point
-        Map<GraphNode, Integer> layers = bfs(startingNode);
-        if (!layers.containsKey(startingNode) || !layers.containsKey(endNode)) {
-            return new ArrayList<>();
-        }
+    /**
+     * <p>Gets the heading with the given id</p>
+     *
+     * @param headingId Id of the heading
+     * @return Heading in degrees, counterclockwise from east
+     */
+    double getHeading(int headingId) {
+        return graph.headingValue(headingId);
+    }
 
-        List<GraphNode[]> paths = new ArrayList<>();
-        int curLayer = layers.get(endNode);
-        paths.add(insertNodes(new GraphNode[curLayer + 1], curLayer, endNode));
+    /**
+     * <p>Gets the amount of distinct headings of lines and orientations</p>
+     *
+     * @return Amount of heading ids
+     */
+    int getHeadingCount() {
+        return graph.headingCount();
+    }
 
-        while (curLayer > 0) {
-            List<GraphNode[]> newPaths = new ArrayList<>();
-            for (GraphNode[] path : paths) {
-                // Crete a new path in the list for every node adjacenent to the current one that is closer to the
-                // source than the node itself
-                for (GraphNode latestNode : path[curLayer].getAdjacent()) {
-                    if (layers.get(latestNode) == curLayer - 1) {
-                        newPaths.add(insertNodes(copyPath(path), curLayer - 1, latestNode));
+    /**
+     * <p>Searches the path for every combination of start, goal, heading at the start and orientation at the
+     * goal and fills the route table with them</p>
+     */
+    private void buildRouteTable() {
+        for (CircuitPosition start : POSITIONS) {
+            for (int startHeading = 0; startHeading < graph.headingCount(); startHeading++) {
+                // One search from the start reaches every goal
+                search(CircuitGraph.node(start), startHeading);
+                for (CircuitPosition end : POSITIONS) {
+                    for (CircuitOrientation endOrientation : ORIENTATIONS) {
+                        storeBestPath(routeIndex(start, end, startHeading, endOrientation), CircuitGraph.node(end),
+                                startHeading, graph.headingId(endOrientation));
                     }
                 }
             }
-            paths = newPaths;
-            curLayer--;
         }
-
-        return paths;
-
     }
 
     /**
-     * <p>Inserts a node into the given array and returns it</p>
+     * <p>Calculates the index of a route in the route table</p>
      *
-     * @param arr Array to insert into
-     * @param i Index to insert at
-     * @param n Node to insert
-     * @return The array with the given value
+     * @param startPosition {@link CircuitPosition Position} the robots starts
+     * @param endPosition {@link CircuitPosition Position} the robot stops in
+     * @param startHeadingId Id of the heading the robot faces at start
+     * @param endOrientation {@link CircuitOrientation Direction} the robot should face at the end
+     * @return Index in the route table
      */
-    private GraphNode[] insertNodes(GraphNode[] arr, int i, GraphNode n) {
-        arr[i] = n;
-        return arr;
+    private int routeIndex(CircuitPosition startPosition, CircuitPosition endPosition,
+                           int startHeadingId, CircuitOrientation endOrientation) {
+        return ((startPosition.ordinal() * graph.headingCount() + startHeadingId) * POSITIONS.length
+                + endPosition.ordinal()) * ORIENTATIONS.length + endOrientation.ordinal();
     }
 
     /**
-     * <p>Copies an array and returns it</p>
+     * <p>Implementation of <a href="https://en.wikipedia.org/wiki/Dijkstra%27s_algorithm">Dijkstra's algorithm</a>
+     * over the states the robot can be in. A state is a node together with the direction the robot faces in it,
+     * which is given by the edge it entered the node by</p>
+     * <p>Driving along an edge costs its estimated driving time. Changing the direction costs the estimated time
+     * for turning and, except at the start, for stopping at the node</p>
+     * <p>Only the fastest way into each state is kept, so every state gets expanded at most once. The result is
+     * stored in {@link #stateCosts}, {@link #parentStates} and {@link #settled}</p>
      *
-     * @param org Array to copy
-     * @return Copy of this array
+     * @param source Node the robot starts in
+     * @param startHeading Id of the heading the robot faces at start
      */
-    private GraphNode[] copyPath(GraphNode[] org) {
-        GraphNode[] copy = new GraphNode[org.length];
-        System.arraycopy(org, 0, copy, 0, org.length);
-        return copy;
+    private void search(int source, int startHeading) {
+        Arrays.fill(stateCosts, Double.POSITIVE_INFINITY);
+        Arrays.fill(parentStates, -1);
+        Arrays.fill(settled, false);
+        nextStates.clear();
+        startNode = source;
+
+        stateCosts[startState] = 0;
+        nextStates.offer(startState, 0);
+        while (!nextStates.isEmpty()) {
+            int u = nextStates.poll();
+            settled[u] = true;
+            int node = u == startState ? startNode : graph.target(u);
+            int heading = u == startState ? startHeading : graph.headingId(u);
+
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                if (settled[edge]) {
+                    continue;
+                }
+                double cost = stateCosts[u] + timeModel.driveTime(graph.length(edge));
+                double angle = graph.turnAngle(heading, graph.headingId(edge));
+                if (angle > 0) {
+                    cost += timeModel.turnTime(angle) + (u == startState ? 0 : timeModel.stopTime());
+                }
+                if (cost < stateCosts[edge]) {
+                    stateCosts[edge] = cost;
+                    parentStates[edge] = u;
+                    nextStates.offer(edge, cost);
+                }
+            }
+        }
     }
 
-
     /**
-     * <p>Simplifies a given path, so the robot can drive it the fastest way possible</p>
+     * <p>Determines the fastest path to the goal out of the result of the last {@link #search} and stores it in the
+     * route table<br>
+     * Includes the time needed for turning into the goal orientation at the end</p>
+     * <p>The stored path are the {@link CircuitPosition positions} the robot needs to stop in because it either has to
+     * turn or it's the end position. It is empty if the goal is the start or can't be reached</p>
      *
-     * @param path Path to simplify
-     * @return An array of the {@link CircuitPosition positions} the robot needs to stop in because it either has to turn
-     *          or it's the end position
+     * @param index Index in the route table
+     * @param goal Node the robot should stop in
+     * @param startHeading Id of the heading the robot faced at the start of the search
+     * @param goalHeading Id of the heading the robot should face at the end or -1 if it doesn't matter
      */
-    private CircuitPosition[] makeDrivablePath(GraphNode[] path) {
-        if (path.length <= 1) {
-            return new CircuitPosition[0];
+    private void storeBestPath(int index, int goal, int startHeading, int goalHeading) {
+        if (goal == startNode) {
+            routeTable[index] = EMPTY_PATH;
+            routeTimes[index] = timeModel.turnTime(graph.turnAngle(startHeading, goalHeading));
+            routeEndHeadings[index] = goalHeading < 0 ? startHeading : goalHeading;
+            return;
         }
-        List<GraphNode> simplifiedPath = new ArrayList<>();
-        Vector2D lastOrientation = path[1].getPosition().subtract(path[0].getPosition()).normalized();
-        for (int j = 1; j < path.length - 1; j++) {
-            // When the robot needs to turn, add node to simplified path
-            Vector2D curStep = path[j + 1].getPosition().subtract(path[j].getPosition());
-            double angle = Math.abs(Vector2D.angle(lastOrientation, curStep));
-            if (angle > 0) {
-                simplifiedPath.add(path[j]);
+
+        int best = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int edge = graph.firstEdge(goal); edge < graph.endEdge(goal); edge++) {
+            int state = graph.reverse(edge);
+            if (!settled[state]) {
+                continue;
+            }
+            double cost = stateCosts[state] + timeModel.turnTime(graph.turnAngle(graph.headingId(state), goalHeading));
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = state;
             }
-            lastOrientation = curStep;
         }
-        // Add last node, so robot knows it needs to stop
-        simplifiedPath.add(path[path.length - 1]);
+        if (best < 0) {
+            routeTable[index] = EMPTY_PATH;
+            routeTimes[index] = Double.POSITIVE_INFINITY;
+            routeEndHeadings[index] = startHeading;
+            return;
+        }
 
-        // List to array
-        CircuitPosition[] positions = new CircuitPosition[simplifiedPath.size()];
-        for (int i = 0; i < simplifiedPath.size(); i++) {
-            positions[i] = simplifiedPath.get(i).getCircuitPosition();
+        int length = 0;
+        for (int state = best; state != startState; state = parentStates[state]) {
+            pathEdges[length++] = state;
         }
-        return positions;
+        routeTable[index] = makeDrivablePath(pathEdges, length);
+        routeTimes[index] = bestCost;
+        routeEndHeadings[index] = goalHeading < 0 ? graph.headingId(best) : goalHeading;
     }
 
     /**
-     * <p>Returns the node with the given identifier if it exists</p>
+     * <p>Simplifies a given path, so the robot can drive it the fastest way possible</p>
      *
-     * @param identifier Identifier to search for
-     * @return The desired node or null if it doesn't exists
+     * @param reversedEdges Edges of the path from the last to the first
+     * @param length Amount of edges in the path
+     * @return An array of the {@link CircuitPosition positions} the robot needs to stop in because it either has to turn
+     *          or it's the end position
      */
-    private GraphNode getNodeFromIdentifier(CircuitPosition identifier) {
-        if (identifier == null) {
-            return null;
+    private CircuitPosition[] makeDrivablePath(int[] reversedEdges, int length) {
+        // Stop at the end and whenever the robot needs to turn
+        int stops = 1;
+        for (int i = length - 1; i > 0; i--) {
+            if (graph.turnAngle(graph.headingId(reversedEdges[i]), graph.headingId(reversedEdges[i - 1])) > 0) {
+                stops++;
+            }
         }
 
-        for (GraphNode node : graph) {
-            if (node.getPosition().equals(identifier.getAsVector())) {
-                return node;
+        CircuitPosition[] positions = new CircuitPosition[stops];
+        int j = 0;
+        for (int i = length - 1; i > 0; i--) {
+            if (graph.turnAngle(graph.headingId(reversedEdges[i]), graph.headingId(reversedEdges[i - 1])) > 0) {
+                positions[j++] = CircuitGraph.position(graph.target(reversedEdges[i]));
             }
         }
-
-        return null;
+        positions[j] = CircuitGraph.position(graph.target(reversedEdges[0]));
+        return positions;
     }
 }
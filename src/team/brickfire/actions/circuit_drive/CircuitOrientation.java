@@ -4,7 +4,7 @@ package team.brickfire.actions.circuit_drive;
  * <p>Representation of all directions in which the robot can look during {@link CircuitDrive CircuitDrive}</p>
  *
  * @author Team BrickFire
- * @version 2.0
+ * @version 3.0
  */
 public enum CircuitOrientation {
 
@@ -14,9 +14,16 @@ public enum CircuitOrientation {
     WEST(new Vector2D(-1, 0)),
     NONE(new Vector2D(0, 0));
 
+    // Headings closer than this are the same orientation
+    private static final double HEADING_TOLERANCE = 1e-6;
+    private static final CircuitOrientation[] VALUES = values();
+
     private final Vector2D fac;
+    private final double heading;
+
     CircuitOrientation(Vector2D fac) {
-        this.fac = fac;
+        this.fac = fac.length() > 0 ? fac.normalized() : fac;
+        this.heading = fac.length() > 0 ? fac.heading() : Double.NaN;
     }
 
     /**
@@ -25,7 +32,16 @@ public enum CircuitOrientation {
      * @return Normalized vector
      */
     public Vector2D getAsVector() {
-        return fac.normalized();
+        return fac;
+    }
+
+    /**
+     * <p>Returns the heading of this orientation</p>
+     *
+     * @return Heading in degrees, counterclockwise from east. NaN for {@link #NONE}
+     */
+    public double getHeading() {
+        return heading;
     }
 
     /**
@@ -35,8 +51,23 @@ public enum CircuitOrientation {
      * @return The corresponding orientation
      */
     public static CircuitOrientation get(Vector2D v) {
-        for (CircuitOrientation o : CircuitOrientation.values()) {
-            if (o.fac.normalized().equals(v.normalized())) {
+        return get(v.getX(), v.getY());
+    }
+
+    /**
+     * <p>Gets a position based on the facing vector without creating it</p>
+     *
+     * @param x X-coordinate of the vector
+     * @param y Y-coordinate of the vector
+     * @return The corresponding orientation or {@link #NONE} if the vector doesn't point in one of them
+     */
+    public static CircuitOrientation get(double x, double y) {
+        if (x == 0 && y == 0) {
+            return NONE;
+        }
+        double heading = Vector2D.heading(x, y);
+        for (CircuitOrientation o : VALUES) {
+            if (Math.abs(Vector2D.turn(o.heading, heading)) < HEADING_TOLERANCE) {
                 return o;
             }
         }
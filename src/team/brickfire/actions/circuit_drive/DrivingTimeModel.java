@@ -0,0 +1,61 @@
+package team.brickfire.actions.circuit_drive;
+
+/**
+ * <p>Estimates how long the robot needs for the moves done during {@link CircuitDrive CircuitDrive}</p>
+ * <p>Used by {@link CircuitNetwork} to weigh paths by time instead of by the number of nodes and by the
+ * {@link team.brickfire.actions.DropOffPlanner DropOffPlanner} for driving between the laundry baskets</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class DrivingTimeModel {
+
+    // Max motor speed at a charged battery with 6.24cm wheels in cm/s and with 8.85cm wheel offset in degrees/s
+    private static final double MAX_LINEAR_SPEED = 42.5;
+    private static final double MAX_ANGULAR_SPEED = 275;
+    // Braking, aligning the motor rotations and accelerating again at a node
+    private static final double STOP_TIME = 0.4;
+
+    private final double linearSpeed;
+    private final double angularSpeed;
+
+    /**
+     * <p>Creates a model for the given speeds</p>
+     *
+     * @param drivingSpeed Speed at which the robot follows lines (0-100% of maximum capability)
+     * @param turningSpeed Speed at which the robot turns (0-100% of maximum capability)
+     */
+    public DrivingTimeModel(double drivingSpeed, double turningSpeed) {
+        this.linearSpeed = Math.abs(drivingSpeed) / 100 * MAX_LINEAR_SPEED;
+        this.angularSpeed = Math.abs(turningSpeed) / 100 * MAX_ANGULAR_SPEED;
+    }
+
+    /**
+     * <p>Estimated time for following a line</p>
+     *
+     * @param distance Distance driven in cm
+     * @return Time in seconds
+     */
+    public double driveTime(double distance) {
+        return Math.abs(distance) / linearSpeed;
+    }
+
+    /**
+     * <p>Estimated time for turning on the spot</p>
+     *
+     * @param angle Angle turned in degrees
+     * @return Time in seconds
+     */
+    public double turnTime(double angle) {
+        return Math.abs(angle) / angularSpeed;
+    }
+
+    /**
+     * <p>Estimated time lost by stopping at a node</p>
+     *
+     * @return Time in seconds
+     */
+    public double stopTime() {
+        return STOP_TIME;
+    }
+}
@@ -0,0 +1,120 @@
+package team.brickfire.actions.circuit_drive;
+
+import java.util.Arrays;
+
+/**
+ * <p>Binary min-heap of the integers 0 to capacity - 1, each with a priority</p>
+ * <p>Every integer is at most once in the heap, lowering the priority of an integer moves it instead of adding it
+ * again. So the heap never grows beyond its capacity and doesn't allocate after being created</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final double[] priorities;
+    private int size;
+
+    /**
+     * <p>Creates an empty heap</p>
+     *
+     * @param capacity Amount of integers that can be in the heap
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        heapIndex = new int[capacity];
+        priorities = new double[capacity];
+        Arrays.fill(heapIndex, -1);
+    }
+
+    /**
+     * <p>Checks whether the heap is empty</p>
+     *
+     * @return True if there is nothing in the heap
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * <p>Removes every integer from the heap</p>
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heapIndex[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * <p>Adds the integer or lowers its priority if it is already in the heap and the new priority is lower</p>
+     *
+     * @param value Integer to add
+     * @param priority Priority of the integer
+     */
+    public void offer(int value, double priority) {
+        int i = heapIndex[value];
+        if (i < 0) {
+            i = size++;
+            heap[i] = value;
+            heapIndex[value] = i;
+        } else if (priority >= priorities[value]) {
+            return;
+        }
+        priorities[value] = priority;
+        siftUp(i);
+    }
+
+    /**
+     * <p>Removes the integer with the lowest priority</p>
+     *
+     * @return The removed integer
+     */
+    public int poll() {
+        int min = heap[0];
+        heapIndex[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            heapIndex[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int i) {
+        int value = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (priorities[heap[parent]] <= priorities[value]) {
+                break;
+            }
+            move(heap[parent], i);
+            i = parent;
+        }
+        move(value, i);
+    }
+
+    private void siftDown(int i) {
+        int value = heap[i];
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && priorities[heap[child + 1]] < priorities[heap[child]]) {
+                child++;
+            }
+            if (priorities[value] <= priorities[heap[child]]) {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(value, i);
+    }
+
+    private void move(int value, int i) {
+        heap[i] = value;
+        heapIndex[value] = i;
+    }
+}
@@ -0,0 +1,157 @@
+package team.brickfire.actions.circuit_drive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Plans {@link TourPlan tours} on a background thread while the robot is still driving</p>
+ * <p>Requests and results are handed over through single slots without locking. A new request replaces one that
+ * wasn't started yet and a new result replaces one that wasn't taken yet, so neither side ever waits for the
+ * other</p>
+ * <p>The thread is only started with the first request, so robots that never plan ahead don't get one</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+class PlanningWorker implements Runnable {
+
+    private final TourPlanner planner;
+    private final AtomicReference<Request> request = new AtomicReference<>();
+    private final AtomicReference<Result> result = new AtomicReference<>();
+
+    // Only used by the thread driving the robot
+    private Thread thread;
+    private long hiddenNanos;
+    private long visibleNanos;
+    private int handedOver;
+    private int missed;
+
+    /**
+     * <p>Creates the worker, its thread is started with the first request</p>
+     *
+     * @param planner Planner used for the tours
+     */
+    public PlanningWorker(TourPlanner planner) {
+        this.planner = planner;
+    }
+
+    /**
+     * <p>Requests a tour to be planned in the background</p>
+     *
+     * @param startPosition {@link CircuitPosition Position} the tour starts in
+     * @param startHeadingId Id of the heading the robot faces at start
+     * @param stops Positions to visit, in any order. The list is copied, so it can be changed afterwards
+     */
+    public void request(CircuitPosition startPosition, int startHeadingId, List<CircuitPosition> stops) {
+        request.set(new Request(startPosition, startHeadingId, stops));
+        if (thread == null) {
+            thread = new Thread(this, "CircuitPlanner");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * <p>Returns the plan for the tour. If it was planned in the background it is taken from there, otherwise it is
+     * planned right now</p>
+     *
+     * @param startPosition {@link CircuitPosition Position} the tour starts in
+     * @param startHeadingId Id of the heading the robot faces at start
+     * @param stops Positions to visit, in any order
+     * @return The planned tour
+     */
+    public TourPlan take(CircuitPosition startPosition, int startHeadingId, List<CircuitPosition> stops) {
+        Result r = result.getAndSet(null);
+        if (r != null && r.request.matches(startPosition, startHeadingId, stops)) {
+            hiddenNanos += r.nanos;
+            handedOver++;
+            return r.plan;
+        }
+
+        long start = System.nanoTime();
+        TourPlan plan = planner.plan(startPosition, startHeadingId, stops, null, CircuitOrientation.NONE);
+        visibleNanos += System.nanoTime() - start;
+        missed++;
+        return plan;
+    }
+
+    /**
+     * <p>Gets the time spent planning in the background on plans that were used</p>
+     *
+     * @return Time in milliseconds
+     */
+    public double getHiddenMillis() {
+        return hiddenNanos / 1e6;
+    }
+
+    /**
+     * <p>Gets the time the robot stood still because a plan wasn't ready</p>
+     *
+     * @return Time in milliseconds
+     */
+    public double getVisibleMillis() {
+        return visibleNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return "Planning: " + handedOver + " handed over (" + getHiddenMillis() + "ms hidden), " + missed
+                + " planned while standing (" + getVisibleMillis() + "ms)";
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            Request r = request.getAndSet(null);
+            if (r == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            long start = System.nanoTime();
+            TourPlan plan = planner.plan(r.startPosition, r.startHeadingId, r.stops, null, CircuitOrientation.NONE);
+            result.set(new Result(r, plan, System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * <p>Tour that should be planned</p>
+     */
+    private static final class Request {
+
+        private final CircuitPosition startPosition;
+        private final int startHeadingId;
+        private final List<CircuitPosition> stops;
+
+        private Request(CircuitPosition startPosition, int startHeadingId, List<CircuitPosition> stops) {
+            this.startPosition = startPosition;
+            this.startHeadingId = startHeadingId;
+            this.stops = Collections.unmodifiableList(new ArrayList<>(stops));
+        }
+
+        private boolean matches(CircuitPosition startPosition, int startHeadingId, List<CircuitPosition> stops) {
+            return this.startPosition == startPosition && this.startHeadingId == startHeadingId
+                    && this.stops.equals(stops);
+        }
+    }
+
+    /**
+     * <p>Planned tour together with the time planning took</p>
+     */
+    private static final class Result {
+
+        private final Request request;
+        private final TourPlan plan;
+        private final long nanos;
+
+        private Result(Request request, TourPlan plan, long nanos) {
+            this.request = request;
+            this.plan = plan;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package team.brickfire.actions.circuit_drive;
+
+/**
+ * <p>Order in which {@link CircuitDrive CircuitDrive} drives to several {@link CircuitPosition positions} and the
+ * {@link CircuitOrientation orientation} it stops in at each of them</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class TourPlan {
+
+    private final CircuitPosition[] positions;
+    private final CircuitOrientation[] orientations;
+    private final double estimatedTime;
+
+    /**
+     * <p>Creates a plan</p>
+     *
+     * @param positions Positions in the order they are visited
+     * @param orientations Orientation to stop in at each position. {@link CircuitOrientation#NONE} keeps the
+     *                     direction the robot arrives in
+     * @param estimatedTime Estimated time for driving the whole plan in seconds
+     */
+    TourPlan(CircuitPosition[] positions, CircuitOrientation[] orientations, double estimatedTime) {
+        this.positions = positions;
+        this.orientations = orientations;
+        this.estimatedTime = estimatedTime;
+    }
+
+    /**
+     * <p>Gets the amount of stops</p>
+     *
+     * @return Amount of stops
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * <p>Gets the position of a stop</p>
+     *
+     * @param i Index of the stop
+     * @return Position of the stop
+     */
+    public CircuitPosition getPosition(int i) {
+        return positions[i];
+    }
+
+    /**
+     * <p>Gets the orientation the robot stops in at a stop</p>
+     *
+     * @param i Index of the stop
+     * @return Orientation at the stop. {@link CircuitOrientation#NONE} keeps the direction the robot arrives in
+     */
+    public CircuitOrientation getOrientation(int i) {
+        return orientations[i];
+    }
+
+    /**
+     * <p>Gets the estimated time for driving the whole plan</p>
+     *
+     * @return Time in seconds
+     */
+    public double getEstimatedTime() {
+        return estimatedTime;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < positions.length; i++) {
+            s.append(i == 0 ? "" : ", ").append(positions[i]).append(' ').append(orientations[i]);
+        }
+        return "[" + s + "] " + estimatedTime + "s";
+    }
+}
@@ -0,0 +1,145 @@
+package team.brickfire.actions.circuit_drive;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Plans a tour through several {@link CircuitPosition positions} on the {@link CircuitNetwork network}</p>
+ * <p>Uses the <a href="https://en.wikipedia.org/wiki/Held%E2%80%93Karp_algorithm">Held-Karp algorithm</a>
+ * (dynamic programming over the subsets of visited stops). The state also contains the heading the robot faces at
+ * its last stop, so the orientation chosen at each stop takes the turn into the next leg into account</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+class TourPlanner {
+
+    // 2^10 subsets are still fast enough on the brick
+    private static final int MAX_STOPS = 10;
+    // NONE first: ties keep the orientation tried first, and not turning at a stop is the safer choice
+    private static final CircuitOrientation[] ORIENTATIONS = {CircuitOrientation.NONE, CircuitOrientation.NORTH,
+            CircuitOrientation.EAST, CircuitOrientation.SOUTH, CircuitOrientation.WEST};
+    private static final CircuitOrientation[] VALUES = CircuitOrientation.values();
+
+    private final CircuitNetwork circuit;
+
+    /**
+     * <p>Creates a planner</p>
+     *
+     * @param circuit Network to plan on
+     */
+    public TourPlanner(CircuitNetwork circuit) {
+        this.circuit = circuit;
+    }
+
+    /**
+     * <p>Calculates the fastest order for visiting every stop and the orientation to stop in at each of them</p>
+     *
+     * @param startPosition {@link CircuitPosition Position} the robot starts in
+     * @param startHeadingId Id of the heading the robot faces at start
+     * @param stops Positions to visit, in any order
+     * @param finish Position to drive to after the last stop or null if the tour ends at the last stop
+     * @param finishOrientation Orientation to face at the finish
+     * @return The fastest plan. If a finish is given it is its last stop
+     */
+    public TourPlan plan(CircuitPosition startPosition, int startHeadingId, List<CircuitPosition> stops,
+                         CircuitPosition finish, CircuitOrientation finishOrientation) {
+        int n = stops.size();
+        if (n > MAX_STOPS) {
+            throw new IllegalArgumentException("Can't plan a tour through more than " + MAX_STOPS + " stops");
+        }
+        CircuitPosition[] targets = stops.toArray(new CircuitPosition[0]);
+        int headings = circuit.getHeadingCount();
+        int full = (1 << n) - 1;
+
+        // State: (subset of visited stops, last stop, heading at the last stop)
+        int states = (1 << n) * Math.max(n, 1) * headings;
+        double[] times = new double[states];
+        int[] parents = new int[states];
+        byte[] chosenOrientations = new byte[states];
+        Arrays.fill(times, Double.POSITIVE_INFINITY);
+
+        for (int i = 0; i < n; i++) {
+            for (CircuitOrientation o : ORIENTATIONS) {
+                double time = circuit.getTime(startPosition, targets[i], startHeadingId, o);
+                int h = circuit.getEndHeadingId(startPosition, targets[i], startHeadingId, o);
+                relax(times, parents, chosenOrientations, state(1 << i, i, h, n, headings), time, -1, o);
+            }
+        }
+        for (int visited = 1; visited <= full; visited++) {
+            for (int last = 0; last < n; last++) {
+                if ((visited & (1 << last)) == 0) {
+                    continue;
+                }
+                for (int h = 0; h < headings; h++) {
+                    int current = state(visited, last, h, n, headings);
+                    if (times[current] == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    for (int next = 0; next < n; next++) {
+                        if ((visited & (1 << next)) != 0) {
+                            continue;
+                        }
+                        for (CircuitOrientation o : ORIENTATIONS) {
+                            double time = times[current] + circuit.getTime(targets[last], targets[next], h, o);
+                            int nextH = circuit.getEndHeadingId(targets[last], targets[next], h, o);
+                            relax(times, parents, chosenOrientations,
+                                    state(visited | (1 << next), next, nextH, n, headings), time, current, o);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Pick the best end, including the way to the finish
+        int best = -1;
+        double bestTime = n == 0 && finish == null ? 0 : Double.POSITIVE_INFINITY;
+        for (int last = 0; last < n; last++) {
+            for (int h = 0; h < headings; h++) {
+                int current = state(full, last, h, n, headings);
+                double time = times[current];
+                if (finish != null) {
+                    time += circuit.getTime(targets[last], finish, h, finishOrientation);
+                }
+                if (time < bestTime) {
+                    bestTime = time;
+                    best = current;
+                }
+            }
+        }
+        if (n == 0 && finish != null) {
+            bestTime = circuit.getTime(startPosition, finish, startHeadingId, finishOrientation);
+        }
+        if (bestTime == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Not every stop of " + stops + " can be reached");
+        }
+
+        int size = n + (finish == null ? 0 : 1);
+        CircuitPosition[] positions = new CircuitPosition[size];
+        CircuitOrientation[] orientations = new CircuitOrientation[size];
+        if (finish != null) {
+            positions[size - 1] = finish;
+            orientations[size - 1] = finishOrientation;
+        }
+        int i = n - 1;
+        for (int current = best; current >= 0; current = parents[current]) {
+            positions[i] = targets[(current / headings) % n];
+            orientations[i] = VALUES[chosenOrientations[current]];
+            i--;
+        }
+        return new TourPlan(positions, orientations, bestTime);
+    }
+
+    private static void relax(double[] times, int[] parents, byte[] chosenOrientations, int state, double time,
+                              int parent, CircuitOrientation orientation) {
+        if (time < times[state]) {
+            times[state] = time;
+            parents[state] = parent;
+            chosenOrientations[state] = (byte) orientation.ordinal();
+        }
+    }
+
+    private static int state(int visited, int last, int heading, int n, int headings) {
+        return (visited * n + last) * headings + heading;
+    }
+}
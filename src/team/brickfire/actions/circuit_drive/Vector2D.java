@@ -48,9 +48,51 @@ class Vector2D {
      * @return Length of vector
      */
     public double length() {
+        return length(x, y);
+    }
+
+    /**
+     * <p>Gets the length of a vector without creating it</p>
+     *
+     * @param x X-coordinate of the vector
+     * @param y Y-coordinate of the vector
+     * @return Length of the vector
+     */
+    public static double length(double x, double y) {
         return Math.sqrt(x * x + y * y);
     }
 
+    /**
+     * <p>Gets the heading of this vector</p>
+     *
+     * @return Heading in degrees, counterclockwise from the x-axis (-180 to 180)
+     */
+    public double heading() {
+        return heading(x, y);
+    }
+
+    /**
+     * <p>Gets the heading of a vector without creating it</p>
+     *
+     * @param x X-coordinate of the vector
+     * @param y Y-coordinate of the vector
+     * @return Heading in degrees, counterclockwise from the x-axis (-180 to 180)
+     */
+    public static double heading(double x, double y) {
+        return Math.toDegrees(Math.atan2(y, x));
+    }
+
+    /**
+     * <p>Calculates the shortest turn from one heading to another</p>
+     *
+     * @param from Heading before turning in degrees
+     * @param to Heading after turning in degrees
+     * @return Turn in degrees (-180 to 180), positive is counterclockwise
+     */
+    public static double turn(double from, double to) {
+        return Math.IEEEremainder(to - from, 360);
+    }
+
     /**
      * <p>Subtracts another vector from this one using {@link #difference}(this, v)</p>
      *
@@ -78,7 +120,8 @@ class Vector2D {
      * @return Normalized vector
      */
     public Vector2D normalized() {
-        return new Vector2D(x / length(), y / length());
+        double length = length();
+        return new Vector2D(x / length, y / length);
     }
 
     /**
@@ -90,7 +133,8 @@ class Vector2D {
      */
     public static double angle(Vector2D v1, Vector2D v2) {
         double dotProduct = v1.x * v2.x + v1.y * v2.y;
-        double value = dotProduct / (v1.length() * v2.length());
+        // Rounding errors can push the value slightly out of the range of acos
+        double value = Math.max(-1, Math.min(1, dotProduct / (v1.length() * v2.length())));
         return Math.toDegrees(Math.acos(value));
     }
 
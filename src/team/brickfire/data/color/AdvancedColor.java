@@ -3,47 +3,89 @@ package team.brickfire.data.color;
 import team.brickfire.robot_parts.sensors.ColorSensor;
 
 /**
- * <p>Saves all readeble values from the color sensor twice and calculates the difference between them (error)</p>
+ * <p>Scans the color and a burst of rgb values with the color sensor and calculates how much they varied (error)</p>
+ * <p>Mean and variance of the rgb values are updated with every sample
+ * (<a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Welford's_online_algorithm">
+ * Welford's algorithm</a>), so one scan is enough and no sample has to be kept</p>
+ * <p>The floor is flat and varies the least, so the error tells it from a black block when the laundry blocks are
+ * evaluated by {@link LaundryAssignment#evaluate(java.util.List)}</p>
  *
  * @author Team BrickFire
- * @version 1.0
+ * @version 2.0
  */
 public class AdvancedColor {
 
+    private static final int COLOR_SAMPLES = 10;
+    private static final int RGB_SAMPLES = 5;
+    // Share of the vote the color needs, below it the scan counts as unusable like two scans of different colors did
+    private static final double MIN_CONFIDENCE = 0.6;
+    private static final double CONFIDENCE = 0.9;
+
+    private static final Color[] COLORS = Color.values();
+
     private final Color color;
-    private final float reflect;
-    private final float[] rgb;
+    private final double confidence;
+    // Share of the vote of every mapped color, indexed by ordinal
+    private final double[] shares = new double[COLORS.length];
 
-    private Color errorColor;
-    private float errorReflect;
-    private float[] errorRGB;
+    private int samples;
+    private final double[] mean = new double[3];
+    private final double[] squares = new double[3];
 
     /**
-     * <p>Scans the initial values</p>
+     * <p>Scans the values</p>
+     * <p>The color is voted on first, then the rgb burst follows. If the sensor is still in rgb mode or the map
+     * classifies rgb scans, the rgb burst comes first, so the sensor switches its mode at most once</p>
      *
      * @param sensor Sensor to scan with
      * @param map ColorMap to map scanned color by
      */
     public AdvancedColor(ColorSensor sensor, ColorMap map) {
-        this.color = sensor.getColor(map, 10);
-        reflect = sensor.getReflectedLight();
-        rgb = sensor.getRGB();
+        float[] rgb = new float[3];
+        if (map.getClassifier() != null || sensor.getMode() == ColorSensor.Mode.RGB) {
+            scanRGB(sensor, rgb);
+        }
+        if (map.getClassifier() != null) {
+            // Classified rgb scans don't vote, they count as certain
+            color = sensor.getColor(map, COLOR_SAMPLES);
+            confidence = 1;
+            shares[color.ordinal()] = 1;
+        } else {
+            ColorVote vote = sensor.getColorVote(map, COLOR_SAMPLES, CONFIDENCE);
+            color = vote.getColor();
+            confidence = vote.getConfidence();
+            for (Color c : COLORS) {
+                shares[c.ordinal()] = vote.getShare(c);
+            }
+        }
+        if (samples == 0) {
+            scanRGB(sensor, rgb);
+        }
+    }
+
+    private void scanRGB(ColorSensor sensor, float[] rgb) {
+        for (int i = 0; i < RGB_SAMPLES; i++) {
+            sensor.fetchRGB(rgb, 0);
+            add(rgb);
+        }
     }
 
     /**
-     * <p>Gets the second set of values</p>
+     * <p>Adds an rgb sample to mean and variance</p>
      *
-     * @param sensor Sensor to scan with
-     * @param map ColorMap to map scanned color by
+     * @param rgb Red, green and blue value
      */
-    public void setErrorValues(ColorSensor sensor, ColorMap map) {
-        errorColor = sensor.getColor(map, 10);
-        errorReflect = sensor.getReflectedLight();
-        errorRGB = sensor.getRGB();
+    private void add(float[] rgb) {
+        samples++;
+        for (int c = 0; c < 3; c++) {
+            double delta = rgb[c] - mean[c];
+            mean[c] += delta / samples;
+            squares[c] += delta * (rgb[c] - mean[c]);
+        }
     }
 
     /**
-     * <p>Returns the initially scanned color</p>
+     * <p>Returns the scanned color</p>
      *
      * @return Scanned color
      */
@@ -51,25 +93,65 @@ public class AdvancedColor {
         return color;
     }
 
+    /**
+     * <p>Returns the share of the vote the color got</p>
+     *
+     * @return Confidence between 0 and 1
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * <p>Returns the share of the vote a mapped color got</p>
+     *
+     * @param mapped Mapped color
+     * @return Share between 0 and 1
+     */
+    public double getShare(Color mapped) {
+        return shares[mapped.ordinal()];
+    }
+
+    /**
+     * <p>Returns the mean of a channel of the rgb burst</p>
+     *
+     * @param channel 0 for red (the reflected light), 1 for green, 2 for blue
+     * @return Mean value (0-1)
+     */
+    public double getMean(int channel) {
+        return mean[channel];
+    }
+
+    /**
+     * <p>Returns the standard deviation of a channel of the rgb burst</p>
+     *
+     * @param channel 0 for red (the reflected light), 1 for green, 2 for blue
+     * @return Standard deviation
+     */
+    public double getStandardDeviation(int channel) {
+        return samples < 2 ? 0 : Math.sqrt(squares[channel] / (samples - 1));
+    }
+
     /**
      * <p>Calculates the error</p>
      *
-     * @return The error of the two scans
+     * @return The sum of the standard deviations of the rgb burst or {@link Double#MAX_VALUE} if the color wasn't
+     *         clear
      */
     public double error() {
-        if (color != errorColor) {
+        if (color == null || confidence < MIN_CONFIDENCE) {
             return Double.MAX_VALUE;
         }
 
-        double error = Math.abs(reflect - errorReflect);
-        for (int i = 0; i < rgb.length; i++) {
-            error += Math.abs(rgb[i] - errorRGB[i]);
+        double error = 0;
+        for (int c = 0; c < 3; c++) {
+            error += getStandardDeviation(c);
         }
-        return Math.abs(error);
+        return error;
     }
 
     @Override
     public String toString() {
-        return color.name();
+        return String.valueOf(color);
     }
 }
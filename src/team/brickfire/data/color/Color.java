@@ -18,6 +18,22 @@ public enum Color {
     YELLOW(lejos.robotics.Color.YELLOW),
     BROWN(lejos.robotics.Color.BROWN);
 
+    // Lowest id, ids are stored shifted by it
+    private static final int ID_OFFSET = -2;
+    // Colors indexed by their id minus the offset, null for ids without a color
+    private static final Color[] BY_LEJOS_ID;
+
+    static {
+        int maxID = 0;
+        for (Color v : values()) {
+            maxID = Math.max(maxID, v.lejosColorID);
+        }
+        BY_LEJOS_ID = new Color[maxID - ID_OFFSET + 1];
+        for (Color v : values()) {
+            BY_LEJOS_ID[v.lejosColorID - ID_OFFSET] = v;
+        }
+    }
+
     private final int lejosColorID;
 
     Color(int lejosColorID) {
@@ -26,16 +42,16 @@ public enum Color {
 
     /**
      * <p>Returns the custom Color for a given id from {@link lejos.robotics.Color}</p>
+     * <p>Looks the id up in a table, so it doesn't allocate and can be used in every sensor read</p>
      *
      * @param id LeJOS color id
      * @return The corresponding color
      */
     public static Color fromLeJOSID(int id) {
-        for (Color v : Color.values()) {
-            if (v.lejosColorID == id) {
-                return v;
-            }
+        int index = id - ID_OFFSET;
+        if (index < 0 || index >= BY_LEJOS_ID.length || BY_LEJOS_ID[index] == null) {
+            return Color.NO_COLOR;
         }
-        return Color.NO_COLOR;
+        return BY_LEJOS_ID[index];
     }
 }
@@ -1,21 +1,24 @@
 package team.brickfire.data.color;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
  * <p>Maps {@link Color colors} to compassionate for problems with the sensor</p>
  * <p>Calculates a prioritized {@link Color color} to compensate for problems with the sensor</p>
+ * <p>Mapping and priorities are kept in arrays indexed by the ordinal of the color, so looking them up doesn't
+ * allocate</p>
  *
- * @version 1.0
+ * @version 2.0
  * @author Team BrickFire
  */
 public class ColorMap {
 
-    protected final Map<Color, Color> valueMapping;
-    protected final Map<Color, Integer> priorities;
+    private static final Color[] COLORS = Color.values();
+
+    private final Color[] valueMapping = new Color[COLORS.length];
+    private final int[] priorities = new int[COLORS.length];
+    // Calibrated classifier for rgb scans, null if the colors have to come from the sensors firmware
+    protected RGBClassifier classifier;
 
     /**
      * <p>Creates a ColorMap</p>
@@ -24,8 +27,12 @@ public class ColorMap {
      * @param priorities Priorities of colors
      */
     public ColorMap(Map<Color, Color> valueMapping, Map<Color, Integer> priorities) {
-        this.valueMapping = valueMapping;
-        this.priorities = priorities;
+        for (Map.Entry<Color, Color> entry : valueMapping.entrySet()) {
+            setMapping(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Color, Integer> entry : priorities.entrySet()) {
+            setPriority(entry.getKey(), entry.getValue());
+        }
     }
 
     /**
@@ -33,8 +40,36 @@ public class ColorMap {
      * Can be used when another map inherits this and adds the values in its contractor</p>
      */
     protected ColorMap() {
-        this.valueMapping = new HashMap<>();
-        this.priorities = new HashMap<>();
+    }
+
+    /**
+     * <p>Sets the color a scanned color is mapped to</p>
+     *
+     * @param value Scanned color
+     * @param mapped Color it is mapped to
+     */
+    protected final void setMapping(Color value, Color mapped) {
+        valueMapping[value.ordinal()] = mapped;
+    }
+
+    /**
+     * <p>Sets the priority of a color</p>
+     *
+     * @param value The color
+     * @param priority Its priority, 0 if it should be ignored
+     */
+    protected final void setPriority(Color value, int priority) {
+        priorities[value.ordinal()] = priority;
+    }
+
+    /**
+     * <p>Gets the classifier that tells the colors of this map apart by their rgb values</p>
+     * <p>Its results are already mapped and don't need to be voted on by priority</p>
+     *
+     * @return The classifier or null if the map wasn't calibrated
+     */
+    public RGBClassifier getClassifier() {
+        return classifier;
     }
 
     /**
@@ -47,32 +82,85 @@ public class ColorMap {
     public Color[] mappedValues(Color... values) {
         Color[] mapped = new Color[values.length];
         for (int i = 0; i < values.length; i++) {
-            mapped[i] = valueMapping.get(values[i]);
+            mapped[i] = valueMapping[values[i].ordinal()];
         }
         return mapped;
     }
 
+    /**
+     * <p>Returns the mapped {@link Color color} value of a single color</p>
+     *
+     * @param value Value to map
+     * @return Mapped value
+     */
+    public Color mappedValue(Color value) {
+        return valueMapping[value.ordinal()];
+    }
+
+    /**
+     * <p>Returns how much a single scanned {@link Color color} counts in a vote</p>
+     * <p>It is repeated as often as its priority says and each repetition counts with the priority of the mapped
+     * color, like in {@link #getPrioritisedValueBySum(Color...)} after {@link #repeatByPriority(Color...)} and
+     * {@link #mappedValues(Color...)}</p>
+     *
+     * @param value Scanned color
+     * @return Weight of the scan for its mapped color
+     */
+    public int voteWeight(Color value) {
+        return priorities[value.ordinal()] * priorities[valueMapping[value.ordinal()].ordinal()];
+    }
+
+    /**
+     * <p>Returns the mapped color the scans vote for, without allocating</p>
+     * <p>Gives the same result as <code>getPrioritisedValueBySum(mappedValues(repeatByPriority(values)))</code>:
+     * every scan with a priority counts for its mapped color with its {@link #voteWeight(Color) weight}</p>
+     *
+     * @param values Scanned colors
+     * @return Mapped color with the highest weight, on a tie the one with the lowest ordinal. Null if no scan has a
+     *         priority
+     */
+    public Color vote(Color... values) {
+        Color maxvalue = null;
+        int maxWeight = -1;
+        for (Color candidate : COLORS) {
+            int weight = 0;
+            boolean voted = false;
+            for (Color v : values) {
+                if (priorities[v.ordinal()] > 0 && valueMapping[v.ordinal()] == candidate) {
+                    weight += voteWeight(v);
+                    voted = true;
+                }
+            }
+            if (voted && weight > maxWeight) {
+                maxWeight = weight;
+                maxvalue = candidate;
+            }
+        }
+        return maxvalue;
+    }
+
     /**
      * <p>Returns the most prioritized {@link Color color}. <br>
      * This gets calculated by summing the priorities of each value and returning the one with the highest priority</p>
      *
      * @param values Colors to calculate in the process
-     * @return Prioritized color
+     * @return Prioritized color, on a tie the one with the lowest ordinal
      */
     public Color getPrioritisedValueBySum(Color... values) {
-        Map<Color, Integer> prioritySum = new HashMap<>();
-        for (Color v : values) {
-            int temp = prioritySum.containsKey(v) ? prioritySum.get(v) : 0;
-            prioritySum.remove(v);
-            prioritySum.put(v, temp + priorities.get(v));
-        }
-
         Color maxvalue = null;
         int maxPriority = -1;
-        for (Color k : prioritySum.keySet()) {
-            if (prioritySum.get(k) > maxPriority) {
-                maxPriority = prioritySum.get(k);
-                maxvalue = k;
+        for (Color candidate : COLORS) {
+            int sum = 0;
+            boolean found = false;
+            for (Color v : values) {
+                if (v == candidate) {
+                    sum += priorities[v.ordinal()];
+                    found = true;
+                }
+            }
+            if (found && sum > maxPriority) {
+                maxPriority = sum;
+                maxvalue = candidate;
             }
         }
         return maxvalue;
@@ -89,8 +177,8 @@ public class ColorMap {
         Color maxvalue = null;
         int maxPriority = -1;
         for (Color v : values) {
-            if (priorities.get(v) > maxPriority) {
-                maxPriority = priorities.get(v);
+            if (priorities[v.ordinal()] > maxPriority) {
+                maxPriority = priorities[v.ordinal()];
                 maxvalue = v;
             }
         }
@@ -103,13 +191,18 @@ public class ColorMap {
      * @return The values
      */
     public Color[] repeatByPriority(Color ... values) {
-        List<Color> colors = new ArrayList<>();
+        int length = 0;
+        for (Color value : values) {
+            length += priorities[value.ordinal()];
+        }
+        Color[] colors = new Color[length];
+        int i = 0;
         for (Color value : values) {
-            for (int i = 0; i < priorities.get(value); i++) {
-                colors.add(value);
+            for (int j = 0; j < priorities[value.ordinal()]; j++) {
+                colors[i++] = value;
             }
         }
-        return colors.toArray(new Color[0]);
+        return colors;
     }
 
 }
@@ -0,0 +1,175 @@
+package team.brickfire.data.color;
+
+/**
+ * <p>Votes on the mapped {@link Color color} of scans one scan at a time</p>
+ * <p>Every scan adds its {@link ColorMap#voteWeight(Color) weight} to its mapped color. The vote is decided as soon as
+ * the remaining scans would overtake the leading color with a probability of at most 1 - confidence. So unambiguous
+ * scans don't need all scans</p>
+ * <p>To overtake the leader, another color needs a number of the remaining scans, counted with the heaviest scan
+ * that maps to it. Each remaining scan is taken to be of that color with the share of the scans it had so far, with
+ * one scan of it added, so colors that weren't scanned yet count too. The probabilities of all colors are summed up.
+ * A confidence of 1 or above only ends the vote when the leader can't be overtaken anymore</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class ColorVote {
+
+    private static final Color[] COLORS = Color.values();
+
+    private final ColorMap map;
+    private final int maxSamples;
+    // Largest probability that the result is overturned
+    private final double risk;
+    // Weight of the heaviest scan per mapped color
+    private final int[] maxWeights = new int[COLORS.length];
+    private final int[] weights = new int[COLORS.length];
+    private final int[] counts = new int[COLORS.length];
+
+    private int samples;
+    private int totalWeight;
+    private Color leader;
+
+    /**
+     * <p>Starts a vote</p>
+     *
+     * @param map Map to map and weigh the scans by
+     * @param maxSamples Largest amount of scans
+     * @param confidence Probability (0-1) that the remaining scans don't change the leader, needed to end the vote
+     *                   early. 1 or above only ends it when the leader can't be overtaken anymore
+     */
+    public ColorVote(ColorMap map, int maxSamples, double confidence) {
+        this.map = map;
+        this.maxSamples = maxSamples;
+        this.risk = Math.max(0, 1 - confidence);
+        for (Color c : COLORS) {
+            int mapped = map.mappedValue(c).ordinal();
+            maxWeights[mapped] = Math.max(maxWeights[mapped], map.voteWeight(c));
+        }
+    }
+
+    /**
+     * <p>Adds a scan</p>
+     *
+     * @param value Scanned color
+     * @return Whether more scans are needed
+     */
+    public boolean add(Color value) {
+        samples++;
+        int weight = map.voteWeight(value);
+        if (weight > 0) {
+            Color mapped = map.mappedValue(value);
+            weights[mapped.ordinal()] += weight;
+            counts[mapped.ordinal()]++;
+            totalWeight += weight;
+            if (leader == null || weights[mapped.ordinal()] > weights[leader.ordinal()]
+                    || (weights[mapped.ordinal()] == weights[leader.ordinal()] && mapped.ordinal() < leader.ordinal())) {
+                leader = mapped;
+            }
+        }
+        return !isDecided();
+    }
+
+    /**
+     * <p>Checks whether the remaining scans are unlikely enough to change the result</p>
+     *
+     * @return Whether the vote is decided
+     */
+    public boolean isDecided() {
+        if (samples >= maxSamples) {
+            return true;
+        }
+        if (leader == null) {
+            return false;
+        }
+        int remaining = maxSamples - samples;
+        int leaderWeight = weights[leader.ordinal()];
+        double overturn = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (i == leader.ordinal() || maxWeights[i] == 0) {
+                continue;
+            }
+            // On a tie the lower ordinal wins
+            int needed = leaderWeight - weights[i] + (i < leader.ordinal() ? 0 : 1);
+            int scans = (needed + maxWeights[i] - 1) / maxWeights[i];
+            if (scans <= remaining) {
+                if (risk == 0) {
+                    return false;
+                }
+                overturn += binomialTail(scans, remaining, (counts[i] + 1.0) / (samples + 2));
+                if (overturn > risk) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * <p>Calculates the probability of at least a given amount of successes in independent trials</p>
+     *
+     * @param successes Least amount of successes
+     * @param trials Amount of trials
+     * @param p Probability of a success in one trial
+     * @return Probability between 0 and 1
+     */
+    static double binomialTail(int successes, int trials, double p) {
+        if (successes <= 0) {
+            return 1;
+        }
+        // Logarithms of the terms, so many trials don't underflow
+        double logP = Math.log(p);
+        double logQ = Math.log(1 - p);
+        double logCoefficient = 0;
+        double tail = 0;
+        for (int i = 0; i <= trials; i++) {
+            if (i >= successes) {
+                tail += Math.exp(logCoefficient + i * logP + (trials - i) * logQ);
+            }
+            logCoefficient += Math.log(trials - i) - Math.log(i + 1);
+        }
+        return Math.min(1, tail);
+    }
+
+    /**
+     * <p>Gets the leading color</p>
+     *
+     * @return Mapped color with the most weight, on a tie the one with the lowest ordinal. Null if no scan had weight
+     */
+    public Color getColor() {
+        return leader;
+    }
+
+    /**
+     * <p>Gets the share of the weight of the leading color</p>
+     *
+     * @return Confidence between 0 and 1
+     */
+    public double getConfidence() {
+        return totalWeight == 0 ? 0 : (double) weights[leader.ordinal()] / totalWeight;
+    }
+
+    /**
+     * <p>Gets the share of the weight of a mapped color</p>
+     *
+     * @param mapped Mapped color
+     * @return Share between 0 and 1, 0 if no scan had weight
+     */
+    public double getShare(Color mapped) {
+        return totalWeight == 0 ? 0 : (double) weights[mapped.ordinal()] / totalWeight;
+    }
+
+    /**
+     * <p>Gets the amount of scans that were added</p>
+     *
+     * @return Amount of scans
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return leader + String.format(" (%.0f%% after %d scans)", getConfidence() * 100, samples);
+    }
+}
@@ -0,0 +1,84 @@
+package team.brickfire.data.color;
+
+/**
+ * <p>Colors scanned while driving, each with the distance driven when it was scanned</p>
+ * <p>The samples are kept in arrays allocated once, so scanning doesn't allocate. Afterwards the samples can be
+ * voted on by distance windows, for example one window per object that was driven past</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class DistanceScan {
+
+    private final Color[] colors;
+    private final double[] distances;
+    private int size;
+
+    /**
+     * <p>Creates an empty scan</p>
+     *
+     * @param capacity Largest amount of samples, later ones are dropped
+     */
+    public DistanceScan(int capacity) {
+        this.colors = new Color[capacity];
+        this.distances = new double[capacity];
+    }
+
+    /**
+     * <p>Removes every sample</p>
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * <p>Adds a sample</p>
+     *
+     * @param color Scanned color
+     * @param distance Distance driven when it was scanned in cm
+     * @return False if the scan is full and the sample was dropped
+     */
+    public boolean add(Color color, double distance) {
+        if (size == colors.length) {
+            return false;
+        }
+        colors[size] = color;
+        distances[size] = distance;
+        size++;
+        return true;
+    }
+
+    /**
+     * <p>Gets the amount of samples</p>
+     *
+     * @return Amount of samples
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * <p>Votes on the samples scanned between two distances</p>
+     *
+     * @param map ColorMap to map and weigh the samples by
+     * @param from Start of the window in cm
+     * @param to End of the window in cm
+     * @return The vote over every sample in the window
+     */
+    public ColorVote classify(ColorMap map, double from, double to) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (distances[i] >= from && distances[i] <= to) {
+                count++;
+            }
+        }
+        // A confidence above 1 counts every sample
+        ColorVote vote = new ColorVote(map, count, 2);
+        for (int i = 0; i < size; i++) {
+            if (distances[i] >= from && distances[i] <= to) {
+                vote.add(colors[i]);
+            }
+        }
+        return vote;
+    }
+}
@@ -0,0 +1,253 @@
+package team.brickfire.data.color;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Finds the most probable colors of the laundry blocks from all scans</p>
+ * <p>There is one block of every {@link #LAUNDRY_COLORS laundry color}, every other scan saw no block. Each scan
+ * gives a likelihood for every laundry color and for no block, from its vote and its rgb burst. Every way to give the colors to different scans is
+ * tried and the one with the highest product of likelihoods wins. Its share of the summed probability of all
+ * assignments is the confidence</p>
+ * <p>If the result is {@link #isAmbiguous() ambiguous}, {@link #evaluate(double[][], double[])} falls back to the
+ * rule from before the likelihoods: the scans with the smallest error saw the floor, the others the blocks</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class LaundryAssignment {
+
+    /**
+     * <p>Colors of the laundry blocks</p>
+     */
+    public static final Color[] LAUNDRY_COLORS = {Color.YELLOW, Color.RED, Color.BLACK};
+
+    // Below this confidence the assignment is reported as ambiguous
+    private static final double MIN_CONFIDENCE = 0.75;
+    // Probability a scan gets for results it didn't see at all, so one bad scan can't rule out every assignment
+    private static final double MIN_LIKELIHOOD = 0.02;
+    // Smaller errors count as this one, so a perfectly steady burst doesn't divide by zero
+    private static final double MIN_ERROR = 1e-6;
+    // Index of black in the laundry colors
+    private static final int BLACK = 2;
+
+    private final double[][] likelihoods;
+    private final int blocks;
+    // Index of the laundry color for every scan, -1 for no block
+    private final int[] current;
+    private final int[] best;
+    private double bestProbability = -1;
+    private double totalProbability;
+    private boolean floorByError;
+
+    /**
+     * <p>Finds the assignment</p>
+     *
+     * @param likelihoods For every scan the likelihoods of the {@link #LAUNDRY_COLORS laundry colors} in their order,
+     *                    followed by the likelihood that it saw no block
+     */
+    public LaundryAssignment(double[][] likelihoods) {
+        this.likelihoods = likelihoods;
+        this.blocks = Math.min(LAUNDRY_COLORS.length, likelihoods.length);
+        this.current = new int[likelihoods.length];
+        this.best = new int[likelihoods.length];
+        assign(0, 0, 1);
+    }
+
+    /**
+     * <p>Finds the colors of the scanned blocks from the share of the vote of every color and the
+     * {@link AdvancedColor#error() error} of their rgb bursts</p>
+     *
+     * @param scans The scans
+     * @return The assignment
+     * @see #evaluate(double[][], double[])
+     */
+    public static LaundryAssignment evaluate(List<AdvancedColor> scans) {
+        double[][] shares = new double[scans.size()][LAUNDRY_COLORS.length];
+        double[] errors = new double[scans.size()];
+        for (int scan = 0; scan < shares.length; scan++) {
+            for (int i = 0; i < LAUNDRY_COLORS.length; i++) {
+                shares[scan][i] = scans.get(scan).getShare(LAUNDRY_COLORS[i]);
+            }
+            errors[scan] = scans.get(scan).error();
+        }
+        return evaluate(shares, errors);
+    }
+
+    /**
+     * <p>Finds the colors of the scanned blocks from the share of the vote of every laundry color and the error of
+     * their rgb bursts</p>
+     * <p>If the assignment by the {@link #likelihoods(double[][], double[]) likelihoods} is ambiguous, the scans with
+     * the smallest error are taken as the floor and only the others get the laundry colors</p>
+     *
+     * @param shares For every scan the share of the vote of the {@link #LAUNDRY_COLORS laundry colors} in their order
+     * @param errors For every scan the error of its rgb burst
+     * @return The assignment
+     */
+    public static LaundryAssignment evaluate(double[][] shares, double[] errors) {
+        double[][] likelihoods = likelihoods(shares, errors);
+        LaundryAssignment assignment = new LaundryAssignment(likelihoods);
+        int floors = likelihoods.length - LAUNDRY_COLORS.length;
+        if (!assignment.isAmbiguous() || floors <= 0) {
+            return assignment;
+        }
+        double[][] byError = new double[likelihoods.length][];
+        for (int scan = 0; scan < likelihoods.length; scan++) {
+            byError[scan] = likelihoods[scan].clone();
+        }
+        boolean[] floor = new boolean[likelihoods.length];
+        for (int i = 0; i < floors; i++) {
+            int steadiest = -1;
+            for (int scan = 0; scan < errors.length; scan++) {
+                if (!floor[scan] && (steadiest < 0 || errors[scan] < errors[steadiest])) {
+                    steadiest = scan;
+                }
+            }
+            floor[steadiest] = true;
+            Arrays.fill(byError[steadiest], 0);
+            byError[steadiest][LAUNDRY_COLORS.length] = 1;
+        }
+        LaundryAssignment fallback = new LaundryAssignment(byError);
+        fallback.floorByError = true;
+        return fallback;
+    }
+
+    /**
+     * <p>Calculates the likelihoods of the scans from the share of the vote of every laundry color and the error of
+     * their rgb bursts</p>
+     * <p>Colors that aren't laundry colors count as no block. The floor is scanned as white, which the laundry maps
+     * count as black, so the share of black is split between black and no block. The floor is flat, so its scans vary
+     * the least: the scans that saw no block are spread over the scans by the inverse of their errors, and that part
+     * of the black share goes to no block. Scans with an unclear color ({@link Double#MAX_VALUE} error) keep their
+     * black share</p>
+     *
+     * @param shares For every scan the share of the vote of the {@link #LAUNDRY_COLORS laundry colors} in their order
+     * @param errors For every scan the error of its rgb burst
+     * @return Likelihoods of the laundry colors and of no block for every scan
+     */
+    public static double[][] likelihoods(double[][] shares, double[] errors) {
+        int floors = Math.max(0, shares.length - LAUNDRY_COLORS.length);
+        double[] steadiness = new double[errors.length];
+        double total = 0;
+        for (int scan = 0; scan < errors.length; scan++) {
+            steadiness[scan] = errors[scan] == Double.MAX_VALUE ? 0 : 1 / Math.max(errors[scan], MIN_ERROR);
+            total += steadiness[scan];
+        }
+
+        double[][] result = new double[shares.length][LAUNDRY_COLORS.length + 1];
+        for (int scan = 0; scan < shares.length; scan++) {
+            double none = 1;
+            for (int i = 0; i < LAUNDRY_COLORS.length; i++) {
+                result[scan][i] = shares[scan][i];
+                none -= shares[scan][i];
+            }
+            double floor = total == 0 ? (double) floors / shares.length
+                    : Math.min(1, floors * steadiness[scan] / total);
+            result[scan][LAUNDRY_COLORS.length] = Math.max(0, none) + floor * shares[scan][BLACK];
+            result[scan][BLACK] = (1 - floor) * shares[scan][BLACK];
+        }
+        return result;
+    }
+
+    /**
+     * <p>Tries every assignment of the unused colors to the scans from the given one on</p>
+     *
+     * @param scan First scan without a color yet
+     * @param used Bit mask of the laundry colors already given to a scan
+     * @param probability Probability of the scans before
+     */
+    private void assign(int scan, int used, double probability) {
+        int remaining = blocks - Integer.bitCount(used);
+        if (scan == likelihoods.length) {
+            if (remaining == 0) {
+                totalProbability += probability;
+                if (probability > bestProbability) {
+                    bestProbability = probability;
+                    System.arraycopy(current, 0, best, 0, current.length);
+                }
+            }
+            return;
+        }
+
+        // No block, unless every remaining scan is needed for the remaining colors
+        if (likelihoods.length - scan > remaining) {
+            current[scan] = -1;
+            assign(scan + 1, used, probability * likelihood(scan, LAUNDRY_COLORS.length));
+        }
+        for (int i = 0; i < LAUNDRY_COLORS.length && remaining > 0; i++) {
+            if ((used & (1 << i)) == 0) {
+                current[scan] = i;
+                assign(scan + 1, used | (1 << i), probability * likelihood(scan, i));
+            }
+        }
+    }
+
+    private double likelihood(int scan, int index) {
+        return Math.max(likelihoods[scan][index], MIN_LIKELIHOOD);
+    }
+
+    /**
+     * <p>Gets the color of the block a scan saw</p>
+     *
+     * @param scan Index of the scan
+     * @return Laundry color or null if the scan saw no block
+     */
+    public Color getColor(int scan) {
+        return best[scan] < 0 ? null : LAUNDRY_COLORS[best[scan]];
+    }
+
+    /**
+     * <p>Gets the colors of the blocks in the order they were scanned</p>
+     *
+     * @return The colors
+     */
+    public Color[] getBlocks() {
+        Color[] result = new Color[blocks];
+        int i = 0;
+        for (int scan = 0; scan < best.length; scan++) {
+            if (best[scan] >= 0) {
+                result[i++] = LAUNDRY_COLORS[best[scan]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>Gets the probability of the assignment compared to all others</p>
+     *
+     * @return Confidence between 0 and 1
+     */
+    public double getConfidence() {
+        return totalProbability == 0 ? 0 : bestProbability / totalProbability;
+    }
+
+    /**
+     * <p>Checks whether the floor was told from the blocks by the smallest error, because the likelihoods were
+     * ambiguous</p>
+     *
+     * @return Whether the floor was found by the error
+     */
+    public boolean isFloorByError() {
+        return floorByError;
+    }
+
+    /**
+     * <p>Checks whether another assignment is almost as probable, so {@link #evaluate(double[][], double[])} falls back
+     * to the error</p>
+     *
+     * @return Whether the assignment is ambiguous
+     */
+    public boolean isAmbiguous() {
+        return getConfidence() < MIN_CONFIDENCE;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int scan = 0; scan < best.length; scan++) {
+            builder.append(scan == 0 ? "[" : ", ").append(getColor(scan) == null ? "-" : getColor(scan).name());
+        }
+        return builder.append(String.format("] %.0f%%%s%s", getConfidence() * 100, isAmbiguous() ? " ambiguous" : "",
+                floorByError ? ", floor by smallest error" : "")).toString();
+    }
+}
@@ -8,29 +8,32 @@ package team.brickfire.data.color;
  */
 public class LaundryBasketColorMap extends ColorMap {
 
+    private static final RGBClassifier CLASSIFIER = RGBClassifier.load("LaundryBasketColorMap");
+
     /**
      * <p>Creates a LaundryColorMap</p>
      */
     public LaundryBasketColorMap() {
         super();
-        valueMapping.put(Color.NONE_MATCHING, Color.NONE_MATCHING);
-        valueMapping.put(Color.NO_COLOR, Color.NO_COLOR);
-        valueMapping.put(Color.BLACK, Color.BLACK);
-        valueMapping.put(Color.WHITE, Color.BLACK);
-        valueMapping.put(Color.RED, Color.RED);
-        valueMapping.put(Color.GREEN, Color.NONE_MATCHING);
-        valueMapping.put(Color.BLUE, Color.BLACK);
-        valueMapping.put(Color.YELLOW, Color.YELLOW);
-        valueMapping.put(Color.BROWN, Color.YELLOW);
+        classifier = CLASSIFIER;
+        setMapping(Color.NONE_MATCHING, Color.NONE_MATCHING);
+        setMapping(Color.NO_COLOR, Color.NO_COLOR);
+        setMapping(Color.BLACK, Color.BLACK);
+        setMapping(Color.WHITE, Color.BLACK);
+        setMapping(Color.RED, Color.RED);
+        setMapping(Color.GREEN, Color.NONE_MATCHING);
+        setMapping(Color.BLUE, Color.BLACK);
+        setMapping(Color.YELLOW, Color.YELLOW);
+        setMapping(Color.BROWN, Color.YELLOW);
 
-        priorities.put(Color.NONE_MATCHING, 1);
-        priorities.put(Color.NO_COLOR, 3);
-        priorities.put(Color.BLACK, 10);
-        priorities.put(Color.WHITE, 10);
-        priorities.put(Color.RED, 4);
-        priorities.put(Color.GREEN, 0);
-        priorities.put(Color.BLUE, 2);
-        priorities.put(Color.YELLOW, 7);
-        priorities.put(Color.BROWN, 2);
+        setPriority(Color.NONE_MATCHING, 1);
+        setPriority(Color.NO_COLOR, 3);
+        setPriority(Color.BLACK, 10);
+        setPriority(Color.WHITE, 10);
+        setPriority(Color.RED, 4);
+        setPriority(Color.GREEN, 0);
+        setPriority(Color.BLUE, 2);
+        setPriority(Color.YELLOW, 7);
+        setPriority(Color.BROWN, 2);
     }
 }
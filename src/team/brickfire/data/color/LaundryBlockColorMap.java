@@ -8,29 +8,32 @@ package team.brickfire.data.color;
  */
 public class LaundryBlockColorMap extends ColorMap {
 
+    private static final RGBClassifier CLASSIFIER = RGBClassifier.load("LaundryBlockColorMap");
+
     /**
      * <p>Creates a LaundryColorMap</p>
      */
     public LaundryBlockColorMap() {
         super();
-        valueMapping.put(Color.NONE_MATCHING, Color.NONE_MATCHING);
-        valueMapping.put(Color.NO_COLOR, Color.NO_COLOR);
-        valueMapping.put(Color.BLACK, Color.BLACK);
-        valueMapping.put(Color.WHITE, Color.BLACK);
-        valueMapping.put(Color.RED, Color.RED);
-        valueMapping.put(Color.GREEN, Color.NONE_MATCHING);
-        valueMapping.put(Color.BLUE, Color.NONE_MATCHING);
-        valueMapping.put(Color.YELLOW, Color.YELLOW);
-        valueMapping.put(Color.BROWN, Color.YELLOW);
+        classifier = CLASSIFIER;
+        setMapping(Color.NONE_MATCHING, Color.NONE_MATCHING);
+        setMapping(Color.NO_COLOR, Color.NO_COLOR);
+        setMapping(Color.BLACK, Color.BLACK);
+        setMapping(Color.WHITE, Color.BLACK);
+        setMapping(Color.RED, Color.RED);
+        setMapping(Color.GREEN, Color.NONE_MATCHING);
+        setMapping(Color.BLUE, Color.NONE_MATCHING);
+        setMapping(Color.YELLOW, Color.YELLOW);
+        setMapping(Color.BROWN, Color.YELLOW);
 
-        priorities.put(Color.NONE_MATCHING, 3);
-        priorities.put(Color.NO_COLOR, 3);
-        priorities.put(Color.BLACK, 5);
-        priorities.put(Color.WHITE, 5);
-        priorities.put(Color.RED, 4);
-        priorities.put(Color.GREEN, 0);
-        priorities.put(Color.BLUE, 0);
-        priorities.put(Color.YELLOW, 7);
-        priorities.put(Color.BROWN, 2);
+        setPriority(Color.NONE_MATCHING, 3);
+        setPriority(Color.NO_COLOR, 3);
+        setPriority(Color.BLACK, 5);
+        setPriority(Color.WHITE, 5);
+        setPriority(Color.RED, 4);
+        setPriority(Color.GREEN, 0);
+        setPriority(Color.BLUE, 0);
+        setPriority(Color.YELLOW, 7);
+        setPriority(Color.BROWN, 2);
     }
 }
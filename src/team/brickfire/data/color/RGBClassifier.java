@@ -0,0 +1,197 @@
+package team.brickfire.data.color;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Classifies rgb scans by the calibrated {@link Color color} they are closest to</p>
+ * <p>Every color has the mean and the variance of red, green and blue of its calibration scans. A scan belongs to the
+ * color with the smallest distance, where every channel is divided by its standard deviation. Scans too far from
+ * every color are {@link Color#NONE_MATCHING}</p>
+ * <p>Works on the rgb values alone, so the sensor can stay in rgb mode. The reflected light is the red value in that
+ * mode and isn't used separately</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class RGBClassifier {
+
+    // Directory the calibrations are saved in on the brick
+    private static final String DIRECTORY = "calibration";
+    // Largest distance in standard deviations a scan may have to a color
+    private static final double MAX_DISTANCE = 6;
+    // Keeps channels that didn't vary during calibration from dividing by zero
+    private static final double MIN_VARIANCE = 1e-6;
+
+    private final Color[] colors;
+    // Mean and variance of red, green and blue for every color, 6 values per color
+    private final double[] model;
+
+    /**
+     * <p>Creates a classifier from calibrated values</p>
+     *
+     * @param colors Colors that can be told apart
+     * @param model Mean of red, green, blue and variance of red, green, blue for every color
+     */
+    public RGBClassifier(Color[] colors, double[] model) {
+        if (model.length != colors.length * 6) {
+            throw new IllegalArgumentException("Need 6 values per color, got " + model.length + " for "
+                    + colors.length + " colors");
+        }
+        this.colors = colors.clone();
+        this.model = model.clone();
+        for (int i = 0; i < colors.length; i++) {
+            for (int c = 3; c < 6; c++) {
+                this.model[i * 6 + c] = Math.max(this.model[i * 6 + c], MIN_VARIANCE);
+            }
+        }
+    }
+
+    /**
+     * <p>Classifies a scan</p>
+     *
+     * @param red Red value (0-1)
+     * @param green Green value (0-1)
+     * @param blue Blue value (0-1)
+     * @return The closest color or {@link Color#NONE_MATCHING} if no color is close
+     */
+    public Color classify(float red, float green, float blue) {
+        Color best = Color.NONE_MATCHING;
+        double bestDistance = MAX_DISTANCE * MAX_DISTANCE;
+        for (int i = 0; i < colors.length; i++) {
+            int o = i * 6;
+            double dr = red - model[o];
+            double dg = green - model[o + 1];
+            double db = blue - model[o + 2];
+            double distance = dr * dr / model[o + 3] + dg * dg / model[o + 4] + db * db / model[o + 5];
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = colors[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <p>Loads the calibration saved under the name</p>
+     *
+     * @param name Name the calibration was saved under, usually the name of the {@link ColorMap}
+     * @return The classifier or null if there is no calibration
+     */
+    public static RGBClassifier load(String name) {
+        File file = file(name);
+        if (!file.exists()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            List<Color> colors = new ArrayList<>();
+            List<Double> values = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 7) {
+                    continue;
+                }
+                colors.add(Color.valueOf(parts[0]));
+                for (int i = 1; i < parts.length; i++) {
+                    values.add(Double.parseDouble(parts[i]));
+                }
+            }
+            double[] model = new double[values.size()];
+            for (int i = 0; i < model.length; i++) {
+                model[i] = values.get(i);
+            }
+            return new RGBClassifier(colors.toArray(new Color[0]), model);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Calibration " + name + " not loaded: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * <p>Saves the calibration under the name</p>
+     *
+     * @param name Name to save the calibration under, usually the name of the {@link ColorMap}
+     * @throws IOException If the file can't be written
+     */
+    public void save(String name) throws IOException {
+        File file = file(name);
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Can't create " + file.getParentFile());
+        }
+        try (PrintWriter writer = new PrintWriter(file)) {
+            writer.print(toString());
+        }
+    }
+
+    private static File file(String name) {
+        return new File(DIRECTORY, name + ".rgb");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < colors.length; i++) {
+            builder.append(colors[i].name());
+            for (int c = 0; c < 6; c++) {
+                builder.append(' ').append(model[i * 6 + c]);
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * <p>Collects calibration scans and calculates the classifier from them</p>
+     */
+    public static class Trainer {
+
+        private final List<Color> colors = new ArrayList<>();
+        private final List<double[]> sums = new ArrayList<>();
+
+        /**
+         * <p>Adds a calibration scan</p>
+         *
+         * @param color Color that was scanned
+         * @param rgb Red, green and blue value of the scan
+         */
+        public void add(Color color, float[] rgb) {
+            int i = colors.indexOf(color);
+            if (i < 0) {
+                i = colors.size();
+                colors.add(color);
+                sums.add(new double[7]);
+            }
+            // Count, sums and sums of squares of the channels
+            double[] sum = sums.get(i);
+            sum[0]++;
+            for (int c = 0; c < 3; c++) {
+                sum[1 + c] += rgb[c];
+                sum[4 + c] += (double) rgb[c] * rgb[c];
+            }
+        }
+
+        /**
+         * <p>Calculates the classifier</p>
+         *
+         * @return Classifier for every color that was added
+         */
+        public RGBClassifier build() {
+            double[] model = new double[colors.size() * 6];
+            for (int i = 0; i < colors.size(); i++) {
+                double[] sum = sums.get(i);
+                for (int c = 0; c < 3; c++) {
+                    double mean = sum[1 + c] / sum[0];
+                    model[i * 6 + c] = mean;
+                    model[i * 6 + 3 + c] = Math.max(0, sum[4 + c] / sum[0] - mean * mean);
+                }
+            }
+            return new RGBClassifier(colors.toArray(new Color[0]), model);
+        }
+    }
+}
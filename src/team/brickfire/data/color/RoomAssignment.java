@@ -0,0 +1,164 @@
+package team.brickfire.data.color;
+
+/**
+ * <p>Infers the colors of the four rooms from the scans of their room blocks</p>
+ * <p>{@value #GREEN_ROOMS} of the {@value #ROOMS} rooms are green, the others white. Every possible layout starts
+ * equally likely and each scan multiplies it with the likelihood of the scan given the color the layout puts in
+ * that room (<a href="https://en.wikipedia.org/wiki/Bayes%27_theorem">Bayes' theorem</a>). So a room can be implied
+ * by the others and a clear scan outweighs an unclear one of another room</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class RoomAssignment {
+
+    /**
+     * <p>Amount of rooms</p>
+     */
+    public static final int ROOMS = 4;
+    /**
+     * <p>Amount of green rooms, the others are white</p>
+     */
+    public static final int GREEN_ROOMS = 2;
+
+    // Probability a room needs to count as known without scanning
+    private static final double KNOWN = 0.95;
+    // Likelihood a scan gets for a color it didn't see at all, so one bad scan can't rule out a layout
+    private static final double MIN_LIKELIHOOD = 0.02;
+    private static final int MIN_SAMPLES = 3;
+
+    // Bit masks of the green rooms of every layout
+    private static final int[] LAYOUTS = layouts();
+
+    private final double[] probabilities = new double[LAYOUTS.length];
+
+    /**
+     * <p>Creates the assignment with every layout equally likely</p>
+     */
+    public RoomAssignment() {
+        for (int i = 0; i < LAYOUTS.length; i++) {
+            probabilities[i] = 1.0 / LAYOUTS.length;
+        }
+    }
+
+    /**
+     * <p>Updates the layouts with a scan of a room</p>
+     *
+     * @param room Index of the room
+     * @param green Likelihood of the scan if the room is green
+     * @param white Likelihood of the scan if the room is white
+     */
+    public void observe(int room, double green, double white) {
+        green = Math.max(green, MIN_LIKELIHOOD);
+        white = Math.max(white, MIN_LIKELIHOOD);
+        double total = 0;
+        for (int i = 0; i < LAYOUTS.length; i++) {
+            probabilities[i] *= (LAYOUTS[i] & (1 << room)) != 0 ? green : white;
+            total += probabilities[i];
+        }
+        for (int i = 0; i < LAYOUTS.length; i++) {
+            probabilities[i] /= total;
+        }
+    }
+
+    /**
+     * <p>Updates the layouts with a vote on the mapped color of a room block</p>
+     * <p>The shares of green and white are the likelihoods</p>
+     *
+     * @param room Index of the room
+     * @param vote The vote
+     */
+    public void observe(int room, ColorVote vote) {
+        observe(room, vote.getShare(Color.GREEN), vote.getShare(Color.WHITE));
+    }
+
+    /**
+     * <p>Gets the probability that a room is green</p>
+     *
+     * @param room Index of the room
+     * @return Probability between 0 and 1
+     */
+    public double getGreenProbability(int room) {
+        double green = 0;
+        for (int i = 0; i < LAYOUTS.length; i++) {
+            if ((LAYOUTS[i] & (1 << room)) != 0) {
+                green += probabilities[i];
+            }
+        }
+        return green;
+    }
+
+    /**
+     * <p>Gets the more probable color of a room</p>
+     *
+     * @param room Index of the room
+     * @return {@link Color#GREEN} or {@link Color#WHITE}
+     */
+    public Color getColor(int room) {
+        return getGreenProbability(room) >= 0.5 ? Color.GREEN : Color.WHITE;
+    }
+
+    /**
+     * <p>Gets the probability of the more probable color of a room</p>
+     *
+     * @param room Index of the room
+     * @return Confidence between 0.5 and 1
+     */
+    public double getConfidence(int room) {
+        double green = getGreenProbability(room);
+        return Math.max(green, 1 - green);
+    }
+
+    /**
+     * <p>Checks whether the color of a room is known well enough without scanning it</p>
+     *
+     * @param room Index of the room
+     * @return Whether the room is known
+     */
+    public boolean isKnown(int room) {
+        return getConfidence(room) >= KNOWN;
+    }
+
+    /**
+     * <p>Gets how many scans a room should get at most</p>
+     * <p>An unknown room gets all of them, the more the other scans imply its color the fewer it needs</p>
+     *
+     * @param room Index of the room
+     * @param maxSamples Scans for a room nothing is known about
+     * @return Amount of scans, 0 if the room is known
+     */
+    public int getSampleBudget(int room, int maxSamples) {
+        if (isKnown(room)) {
+            return 0;
+        }
+        double uncertainty = 2 * (1 - getConfidence(room));
+        return Math.max(MIN_SAMPLES, (int) Math.ceil(maxSamples * uncertainty));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int room = 0; room < ROOMS; room++) {
+            result.append(room == 0 ? "" : ", ").append(getColor(room))
+                    .append(String.format(" %.0f%%", getConfidence(room) * 100));
+        }
+        return result.toString();
+    }
+
+    private static int[] layouts() {
+        int count = 0;
+        for (int mask = 0; mask < 1 << ROOMS; mask++) {
+            if (Integer.bitCount(mask) == GREEN_ROOMS) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        int i = 0;
+        for (int mask = 0; mask < 1 << ROOMS; mask++) {
+            if (Integer.bitCount(mask) == GREEN_ROOMS) {
+                result[i++] = mask;
+            }
+        }
+        return result;
+    }
+}
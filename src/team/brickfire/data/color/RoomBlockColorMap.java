@@ -8,29 +8,32 @@ package team.brickfire.data.color;
  */
 public class RoomBlockColorMap extends ColorMap {
 
+    private static final RGBClassifier CLASSIFIER = RGBClassifier.load("RoomBlockColorMap");
+
     /**
      * <p>Creates a RoomBlockColorMap</p>
      */
     public RoomBlockColorMap() {
         super();
-        valueMapping.put(Color.NONE_MATCHING, Color.NONE_MATCHING);
-        valueMapping.put(Color.NO_COLOR, Color.NO_COLOR);
-        valueMapping.put(Color.BLACK, Color.WHITE);
-        valueMapping.put(Color.WHITE, Color.WHITE);
-        valueMapping.put(Color.RED, Color.NONE_MATCHING);
-        valueMapping.put(Color.GREEN, Color.GREEN);
-        valueMapping.put(Color.BLUE, Color.WHITE);
-        valueMapping.put(Color.YELLOW, Color.NONE_MATCHING);
-        valueMapping.put(Color.BROWN, Color.NONE_MATCHING);
+        classifier = CLASSIFIER;
+        setMapping(Color.NONE_MATCHING, Color.NONE_MATCHING);
+        setMapping(Color.NO_COLOR, Color.NO_COLOR);
+        setMapping(Color.BLACK, Color.WHITE);
+        setMapping(Color.WHITE, Color.WHITE);
+        setMapping(Color.RED, Color.NONE_MATCHING);
+        setMapping(Color.GREEN, Color.GREEN);
+        setMapping(Color.BLUE, Color.WHITE);
+        setMapping(Color.YELLOW, Color.NONE_MATCHING);
+        setMapping(Color.BROWN, Color.NONE_MATCHING);
 
-        priorities.put(Color.NONE_MATCHING, 1);
-        priorities.put(Color.NO_COLOR, 3);
-        priorities.put(Color.BLACK, 1);
-        priorities.put(Color.WHITE, 10);
-        priorities.put(Color.RED, 1);
-        priorities.put(Color.GREEN, 5);
-        priorities.put(Color.BLUE, 4);
-        priorities.put(Color.YELLOW, 1);
-        priorities.put(Color.BROWN, 1);
+        setPriority(Color.NONE_MATCHING, 1);
+        setPriority(Color.NO_COLOR, 3);
+        setPriority(Color.BLACK, 1);
+        setPriority(Color.WHITE, 10);
+        setPriority(Color.RED, 1);
+        setPriority(Color.GREEN, 5);
+        setPriority(Color.BLUE, 4);
+        setPriority(Color.YELLOW, 1);
+        setPriority(Color.BROWN, 1);
     }
 }
@@ -11,9 +11,14 @@ import team.brickfire.robot_parts.arms.WaterBottleArm;
 import team.brickfire.robot_parts.base.SpeedUtility;
 import team.brickfire.data.color.Color;
 import team.brickfire.robot_parts.base.CompetitionFeatures;
+import team.brickfire.robot_parts.base.ControlLoop;
+import team.brickfire.robot_parts.base.ControlStep;
 import team.brickfire.robot_parts.base.DrivingBase;
+import team.brickfire.robot_parts.base.LineFollowingController;
 import team.brickfire.robot_parts.custom_lejos.CustomMovePilot;
 import team.brickfire.robot_parts.sensors.ColorSensor;
+import team.brickfire.robot_parts.sensors.SamplePair;
+import team.brickfire.robot_parts.sensors.SensorPoller;
 
 /**
  * <p>Represents the robot. <br>
@@ -25,6 +30,11 @@ import team.brickfire.robot_parts.sensors.ColorSensor;
  */
 public class Robot extends DrivingBase implements CompetitionFeatures {
 
+    // Time between two steps of line following and aligning in milliseconds
+    private static final double CONTROL_PERIOD = 5;
+    // Time between two samples of the line sensors in milliseconds
+    private static final double POLL_PERIOD = 2;
+
     // Singleton-Pattern
     private static Robot instance;
     protected final WaterBottleArm waterBottleArm;
@@ -37,7 +47,13 @@ public class Robot extends DrivingBase implements CompetitionFeatures {
     private final BaseRegulatedMotor motorRight;
     private final ColorSensor colorSensorLeft;
     private final ColorSensor colorSensorRight;
+    private final SensorPoller pollerLeft;
+    private final SensorPoller pollerRight;
+    // Only used on the control loop thread
+    private final SamplePair lineSamples;
     private final CustomMovePilot pilot;
+    private final ControlLoop controlLoop;
+    private final LineFollowingController lineFollowingController;
     private final double wheelOffset;
     private final double wheelDiameter;
 
@@ -55,14 +71,20 @@ public class Robot extends DrivingBase implements CompetitionFeatures {
                 WheeledChassis.modelWheel(this.motorRight, wheelDiameter).offset(wheelOffset),
                 WheeledChassis.modelWheel(this.motorLeft, wheelDiameter).offset(-wheelOffset).invert(true)},
                 WheeledChassis.TYPE_DIFFERENTIAL));
+        this.controlLoop = new ControlLoop(CONTROL_PERIOD);
+        this.lineFollowingController = new LineFollowingController();
         this.wheelDiameter = wheelDiameter;
         this.wheelOffset = wheelOffset;
 
         this.colorSensorLeft = ColorSensor.get(1);
         this.colorSensorRight = ColorSensor.get(3);
+        this.pollerLeft = new SensorPoller(colorSensorLeft, POLL_PERIOD);
+        this.pollerRight = new SensorPoller(colorSensorRight, POLL_PERIOD);
+        this.lineSamples = new SamplePair();
 
         this.waterBottleArm = WaterBottleArm.create(new EV3MediumRegulatedMotor(MotorPort.A),
-                (RotateToArmMovement) WaterBottleArm.START, 40, 1);
+                (RotateToArmMovement) WaterBottleArm.START, WaterBottleArm.SPEED,
+                WaterBottleArm.ACCELERATION_FACTOR);
         this.blockArm = BlockArm.create(new EV3MediumRegulatedMotor(MotorPort.D),
                 (RotateToArmMovement) BlockArm.HIGHEST, 50, 3);
         this.colorSensorBlocks = ColorSensor.get(2);
@@ -86,11 +108,16 @@ public class Robot extends DrivingBase implements CompetitionFeatures {
         this.motorRight = instance.motorRight;
         this.motorLeft = instance.motorLeft;
         this.pilot = instance.pilot;
+        this.controlLoop = instance.controlLoop;
+        this.lineFollowingController = instance.lineFollowingController;
         this.wheelOffset = instance.wheelOffset;
         this.wheelDiameter = instance.wheelDiameter;
 
         this.colorSensorLeft = instance.colorSensorLeft;
         this.colorSensorRight = instance.colorSensorRight;
+        this.pollerLeft = instance.pollerLeft;
+        this.pollerRight = instance.pollerRight;
+        this.lineSamples = instance.lineSamples;
 
         this.blockArm = instance.blockArm;
         this.waterBottleArm = instance.waterBottleArm;
@@ -248,8 +275,7 @@ public class Robot extends DrivingBase implements CompetitionFeatures {
         setTurningSpeed(Math.abs(speed));
 
         for (int i = 0; i < repetitions; i++) {
-            Color targetColor = i % 2 == 0 ? Color.BLACK : Color.WHITE;
-            boolean leftSeen = false, rightSeen = false;
+            final Color targetColor = i % 2 == 0 ? Color.BLACK : Color.WHITE;
             if (((i % 2 == 0) && (speed >= 0)) || ((i % 2 == 1) && (speed < 0))) {
                 motorRight.forward();
                 motorLeft.backward();
@@ -257,42 +283,72 @@ public class Robot extends DrivingBase implements CompetitionFeatures {
                 motorLeft.forward();
                 motorRight.backward();
             }
-            while (!(leftSeen && rightSeen)) {
-                if (!leftSeen && colorSensorLeft.isColor(targetColor)) {
-                    motorLeft.stop();
-                    leftSeen = true;
-                }
-                if (!rightSeen && colorSensorRight.isColor(targetColor)) {
-                    motorRight.stop();
-                    rightSeen = true;
+            controlLoop.run(new ControlStep() {
+                private boolean leftSeen, rightSeen;
+
+                @Override
+                public boolean step(double dt) {
+                    if (!leftSeen && colorSensorLeft.isColor(targetColor)) {
+                        motorLeft.stop();
+                        leftSeen = true;
+                    }
+                    if (!rightSeen && colorSensorRight.isColor(targetColor)) {
+                        motorRight.stop();
+                        rightSeen = true;
+                    }
+                    return !(leftSeen && rightSeen);
                 }
-            }
+            });
         }
     }
 
     @Override
     public void alignLightLevel(double speed) {
-        float dif = Float.POSITIVE_INFINITY;
         SpeedUtility.setMotorSpeed(motorLeft, speed, speed * 4);
         SpeedUtility.setMotorSpeed(motorRight, speed, speed * 4);
 
-        while (Math.abs(dif) >= 0.05) {
-            float lv = colorSensorLeft.getReflectedLight();
-            float rv = colorSensorRight.getReflectedLight();
-            if (lv > rv) {
-                motorLeft.backward();
-                motorRight.forward();
-            } else if (rv > lv) {
-                motorRight.backward();
-                motorLeft.forward();
-            }
-
-            dif = colorSensorLeft.getReflectedLight() - colorSensorRight.getReflectedLight();
+        pollerLeft.resume();
+        pollerRight.resume();
+        try {
+            controlLoop.run(new ControlStep() {
+                @Override
+                public boolean step(double dt) {
+                    if (!readLineSamples()) {
+                        return true;
+                    }
+                    float lv = lineSamples.getFirst();
+                    float rv = lineSamples.getSecond();
+                    if (Math.abs(lv - rv) < 0.05) {
+                        return false;
+                    }
+                    if (lv > rv) {
+                        motorLeft.backward();
+                        motorRight.forward();
+                    } else {
+                        motorRight.backward();
+                        motorLeft.forward();
+                    }
+                    return true;
+                }
+            });
+        } finally {
+            pollerLeft.pause();
+            pollerRight.pause();
         }
         motorLeft.stop(true);
         motorRight.stop();
     }
 
+    /**
+     * <p>Reads the latest pair of samples of the line sensors</p>
+     *
+     * @return False if one of the sensors wasn't read since the pollers were resumed
+     */
+    private boolean readLineSamples() {
+        SensorPoller.snapshot(pollerLeft, pollerRight, lineSamples);
+        return !Float.isNaN(lineSamples.getFirst()) && !Float.isNaN(lineSamples.getSecond());
+    }
+
     @Override
     public void alignMotorRotations() {
         if (motorRight.getTachoCount() > motorLeft.getTachoCount()) {
@@ -304,13 +360,16 @@ public class Robot extends DrivingBase implements CompetitionFeatures {
 
     @Override
     public void lineFollowing(double distance, double speed) {
+        lineFollowing(distance, speed, true);
+    }
+
+    @Override
+    public void lineFollowing(double distance, double speed, boolean stopAtEnd) {
         distance = distance * Math.signum(speed);
         speed = Math.abs(speed);
 
-        double kP = -0.02, kI = 0.00, kD = 0.000;
-        double integral = 0, lastError = 0;
-
         resetDistance();
+        lineFollowingController.reset(speed);
         SpeedUtility.setMotorSpeed(motorLeft, speed, speed * 4);
         SpeedUtility.setMotorSpeed(motorRight, speed, speed * 4);
 
@@ -322,27 +381,98 @@ public class Robot extends DrivingBase implements CompetitionFeatures {
             motorRight.backward();
         }
 
-        distance = Math.abs(distance);
-        while (getDistance() < distance) {
-            double error = colorSensorLeft.getReflectedLight() - colorSensorRight.getReflectedLight();
-            integral += error;
-            double correction = error * kP + integral * kI + (error - lastError) * kD;
-            SpeedUtility.setMotorSpeed(motorLeft, speed * (1 - correction), speed * 4 * (1 - correction));
-            SpeedUtility.setMotorSpeed(motorRight, speed * (1 + correction), speed * 4 * (1 + correction));
+        final double target = Math.abs(distance);
+        final double acceleration = speed * 4;
+        pollerLeft.resume();
+        pollerRight.resume();
+        try {
+            controlLoop.run(new ControlStep() {
+                @Override
+                public boolean step(double dt) {
+                    if (getDistance() >= target) {
+                        return false;
+                    }
+                    if (!readLineSamples()) {
+                        return true;
+                    }
+                    lineFollowingController.update(lineSamples.getFirst() - lineSamples.getSecond(), dt);
+                    double correction = lineFollowingController.getCorrection();
+                    SpeedUtility.setMotorSpeed(motorLeft, lineFollowingController.getLeftSpeed(),
+                            acceleration * (1 - correction));
+                    SpeedUtility.setMotorSpeed(motorRight, lineFollowingController.getRightSpeed(),
+                            acceleration * (1 + correction));
+                    return true;
+                }
+            });
+        } finally {
+            pollerLeft.pause();
+            pollerRight.pause();
+        }
+        if (stopAtEnd) {
+            motorLeft.stop(true);
+            motorRight.stop();
         }
-        motorLeft.stop(true);
-        motorRight.stop();
     }
 
     @Override
-    public void driveTillColor(double speed, Color color) {
+    public void arcWithoutStopping(double radius, double angle, double speed) {
+        if (radius <= wheelOffset) {
+            throw new IllegalArgumentException("Arc radius " + radius + " is not bigger than the wheel offset");
+        }
+        speed = Math.abs(speed);
+        double outerSpeed = speed;
+        double innerSpeed = speed * (radius - wheelOffset) / (radius + wheelOffset);
+
+        resetDistance();
+        SpeedUtility.setMotorSpeed(motorLeft, angle >= 0 ? innerSpeed : outerSpeed, speed * 4);
+        SpeedUtility.setMotorSpeed(motorRight, angle >= 0 ? outerSpeed : innerSpeed, speed * 4);
+        motorLeft.backward();
+        motorRight.forward();
+
+        // Both wheels together travel the length of the arc through the robots center
+        final double distance = Math.toRadians(Math.abs(angle)) * radius;
+        controlLoop.run(new ControlStep() {
+            @Override
+            public boolean step(double dt) {
+                return getDistance() < distance;
+            }
+        });
+    }
+
+    /**
+     * <p>Runs the step on the fixed rate control loop until it returns false</p>
+     * <p>For actions that read sensors while the robot is moving</p>
+     *
+     * @param step Step to run
+     */
+    protected void runControlLoop(ControlStep step) {
+        controlLoop.run(step);
+    }
+
+    /**
+     * <p>Gets how well the fixed rate of line following and aligning was kept during the last of them</p>
+     *
+     * @return Steps, overruns and jitter of the last control loop and the sample rates of the line sensors
+     */
+    public String getControlStatistics() {
+        return controlLoop + String.format(", line sensors %.0f/s and %.0f/s", pollerLeft.getSampleRate(),
+                pollerRight.getSampleRate());
+    }
+
+    @Override
+    public void driveTillColor(double speed, final Color color) {
         setDrivingSpeed(speed);
         if (speed >= 0) {
             driveForward();
         } else {
             driveBackward();
         }
-        while (!(colorSensorLeft.isColor(color) || colorSensorRight.isColor(color)));
+        controlLoop.run(new ControlStep() {
+            @Override
+            public boolean step(double dt) {
+                return !(colorSensorLeft.isColor(color) || colorSensorRight.isColor(color));
+            }
+        });
         pilot.stop();
     }
 }
@@ -110,6 +110,46 @@ public abstract class ArmMovement {
         return newMovement;
     }
 
+    /**
+     * <p>Estimates how long the movement and the ones chained to it take, without the time the motor needs to settle
+     * at the end</p>
+     * <p>The motor accelerates and brakes like {@link Arm#setSpeed(double)} sets it: its acceleration in degrees/s²
+     * is accelerationFactor times its speed in degrees/s. Short movements don't reach the speed</p>
+     *
+     * @param position Position the arm starts in
+     * @param standardSpeed Speed of the arm for movements without a speed (0-100% of maximum capability)
+     * @param maxSpeed Maximum speed of the motor in degrees/s
+     * @param accelerationFactor How many times the speed, is the acceleration
+     * @return Time in seconds
+     */
+    public double duration(int position, double standardSpeed, double maxSpeed, double accelerationFactor) {
+        double velocity = (speed > 0 ? speed : Math.abs(standardSpeed)) / 100 * maxSpeed;
+        double acceleration = velocity * accelerationFactor;
+        int end = endPosition(position);
+        double angle = Math.abs(end - position);
+        double time;
+        if (angle == 0) {
+            time = 0;
+        } else if (angle < velocity * velocity / acceleration) {
+            time = 2 * Math.sqrt(angle / acceleration);
+        } else {
+            time = angle / velocity + velocity / acceleration;
+        }
+        for (ArmMovement armMovement : chain) {
+            time += armMovement.duration(end, standardSpeed, maxSpeed, accelerationFactor);
+            end = armMovement.endPosition(end);
+        }
+        return time;
+    }
+
+    /**
+     * <p>Position the arm ends in after this movement, without the ones chained to it</p>
+     *
+     * @param position Position the arm starts in
+     * @return Position after the movement
+     */
+    protected abstract int endPosition(int position);
+
     /**
      * <p>Moves the {@link Arm arm} as the class specified type</p>
      * @param arm Arm to move
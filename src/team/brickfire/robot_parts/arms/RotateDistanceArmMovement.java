@@ -31,6 +31,11 @@ public class RotateDistanceArmMovement extends ArmMovement {
     }
 
 
+    @Override
+    protected int endPosition(int position) {
+        return position + distance;
+    }
+
     @Override
     public ArmMovement copy() {
         if (speed > 0) {
@@ -30,6 +30,11 @@ public class RotateToArmMovement extends ArmMovement {
         arm.getMotor().rotateTo(distance - arm.getStartPosition().distance, immediateReturn);
     }
 
+    @Override
+    protected int endPosition(int position) {
+        return distance;
+    }
+
     @Override
     public ArmMovement copy() {
         if (speed > 0) {
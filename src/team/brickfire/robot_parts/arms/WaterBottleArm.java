@@ -11,14 +11,29 @@ import team.brickfire.robot_parts.arms.adjusting.ArmMovementCollection;
  */
 public class WaterBottleArm extends Arm implements ArmMovementCollection {
 
+    /**
+     * <p>Speed of the arm (0-100% of maximum capability) and how many times the speed, is the acceleration</p>
+     */
+    public static final double SPEED = 40;
+    public static final double ACCELERATION_FACTOR = 1;
+    /**
+     * <p>Maximum speed of its EV3 medium motor in degrees/s: 1560 (260rpm) at 9V, scaled to the battery like the
+     * drive motors in {@link team.brickfire.actions.circuit_drive.DrivingTimeModel DrivingTimeModel} (780 of
+     * 1020 degrees/s)</p>
+     */
+    public static final double MAX_SPEED = 1190;
 
     public static final ArmMovement ZERO = new RotateDistanceArmMovement(0);
 
     public static final ArmMovement START = new RotateToArmMovement(0, 100);
     public static final ArmMovement PICKUP = new RotateToArmMovement(-245, 100);
     public static final ArmMovement TABLE = new RotateToArmMovement(-175, 10);
+    /**
+     * <p>Position {@link #DROP_BLOCK} leaves the arm in, so the next drop starts there</p>
+     */
+    public static final int DROP_END = 10;
     public static final ArmMovement DROP_BLOCK = new RotateToArmMovement(-320, 50)
-            .chain(new RotateToArmMovement(10, 100));
+            .chain(new RotateToArmMovement(DROP_END, 100));
 
     public static final ArmMovement OVER_TABLE = new RotateToArmMovement(-30, 100);
 
@@ -60,6 +60,27 @@ public interface CompetitionFeatures {
      */
     void lineFollowing(double distance, double speed);
 
+    /**
+     * <p>The robot follows a line straight along with a PID line follower</p>
+     *
+     * @param distance The distance the robot should travel along the line.
+     * @param speed Speed at which the robot drives (0-100% of maximum capability).
+     * @param stopAtEnd If false, the motors keep running after the distance is reached, so the next move can start
+     *                  without stopping
+     */
+    void lineFollowing(double distance, double speed, boolean stopAtEnd);
+
+    /**
+     * <p>The robot drives forward along an arc and keeps the motors running at its end, so it can be blended in
+     * between two {@link #lineFollowing(double, double, boolean) line followings} without stopping</p>
+     * <p>The robot slows down so that the outer wheel doesn't turn faster than the given speed</p>
+     *
+     * @param radius Radius of the arc in cm. Has to be bigger than the distance of the wheels from the center
+     * @param angle Angle the robot turns in degrees. Positive turns left (counterclockwise)
+     * @param speed Speed of the outer wheel (0-100% of maximum capability).
+     */
+    void arcWithoutStopping(double radius, double angle, double speed);
+
     /**
      * <p>The robot drives until it has reached the desired {@link Color color} </p>
      *
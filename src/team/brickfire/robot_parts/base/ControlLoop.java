@@ -0,0 +1,201 @@
+package team.brickfire.robot_parts.base;
+
+/**
+ * <p>Runs {@link ControlStep control steps} at a fixed rate</p>
+ * <p>The steps run on a thread with the highest priority, so they aren't delayed by other threads. Every step is
+ * scheduled for a multiple of the period after the loop started, measured with {@link System#nanoTime()}. If a step
+ * takes longer than the period, the missed steps are skipped instead of being run back to back</p>
+ * <p>For every run the amount of steps, the overruns and the jitter (how late a step started) are recorded</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class ControlLoop {
+
+    private final long periodNanos;
+    private final Thread thread;
+
+    // Guarded by this
+    private ControlStep step;
+    private Throwable failure;
+
+    // Statistics of the last run, only written by the loop thread while the caller waits
+    private int steps;
+    private int overruns;
+    private long maxJitterNanos;
+    private long jitterSumNanos;
+
+    /**
+     * <p>Creates a loop and starts its thread</p>
+     *
+     * @param periodMillis Time between the start of two steps in milliseconds
+     */
+    public ControlLoop(double periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Period has to be positive but was " + periodMillis);
+        }
+        this.periodNanos = (long) (periodMillis * 1e6);
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                work();
+            }
+        }, "ControlLoop");
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * <p>Runs the step repeatedly until it returns false</p>
+     * <p>Blocks until the loop is done. Runtime exceptions thrown by the step are thrown again here, anything else
+     * the step throws is wrapped in an {@link IllegalStateException}</p>
+     *
+     * @param step Step to run
+     */
+    public synchronized void run(ControlStep step) {
+        this.step = step;
+        this.failure = null;
+        notifyAll();
+        boolean interrupted = false;
+        while (this.step != null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Control step failed", failure);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            ControlStep current;
+            synchronized (this) {
+                while (step == null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // Keep waiting, a later run would never end without this thread
+                    }
+                }
+                current = step;
+            }
+
+            Throwable thrown = null;
+            try {
+                loop(current);
+            } catch (Throwable t) {
+                thrown = t;
+            } finally {
+                synchronized (this) {
+                    failure = thrown;
+                    step = null;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private void loop(ControlStep current) {
+        steps = 0;
+        overruns = 0;
+        maxJitterNanos = 0;
+        jitterSumNanos = 0;
+
+        long start = System.nanoTime();
+        long deadline = start;
+        long lastStart = start - periodNanos;
+        while (true) {
+            long now = System.nanoTime();
+            while (now < deadline) {
+                long remaining = deadline - now;
+                try {
+                    Thread.sleep(remaining / 1000000, (int) (remaining % 1000000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                now = System.nanoTime();
+            }
+
+            long jitter = now - deadline;
+            jitterSumNanos += jitter;
+            maxJitterNanos = Math.max(maxJitterNanos, jitter);
+            steps++;
+
+            boolean running = current.step((now - lastStart) / 1e9);
+            lastStart = now;
+            if (!running) {
+                return;
+            }
+
+            deadline += periodNanos;
+            long end = System.nanoTime();
+            if (end > deadline) {
+                // Skip the steps that were missed and keep the original phase
+                overruns++;
+                deadline += ((end - deadline) / periodNanos + 1) * periodNanos;
+            }
+        }
+    }
+
+    /**
+     * <p>Gets the configured period</p>
+     *
+     * @return Period in seconds
+     */
+    public double getPeriod() {
+        return periodNanos / 1e9;
+    }
+
+    /**
+     * <p>Gets the amount of steps of the last run</p>
+     *
+     * @return Amount of steps
+     */
+    public synchronized int getSteps() {
+        return steps;
+    }
+
+    /**
+     * <p>Gets how many steps of the last run took longer than the period</p>
+     *
+     * @return Amount of overruns
+     */
+    public synchronized int getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * <p>Gets how late the latest step of the last run started</p>
+     *
+     * @return Maximum jitter in milliseconds
+     */
+    public synchronized double getMaxJitter() {
+        return maxJitterNanos / 1e6;
+    }
+
+    /**
+     * <p>Gets how late the steps of the last run started on average</p>
+     *
+     * @return Mean jitter in milliseconds
+     */
+    public synchronized double getMeanJitter() {
+        return steps == 0 ? 0 : jitterSumNanos / 1e6 / steps;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d steps, %d overruns, jitter mean %.2fms max %.2fms", steps, overruns,
+                getMeanJitter(), getMaxJitter());
+    }
+}
@@ -0,0 +1,18 @@
+package team.brickfire.robot_parts.base;
+
+/**
+ * <p>One step of a control loop run by the {@link ControlLoop}</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public interface ControlStep {
+
+    /**
+     * <p>Reads the sensors and sets the motors once</p>
+     *
+     * @param dt Time since the previous step started in seconds. The configured period for the first step
+     * @return Whether the loop should continue
+     */
+    boolean step(double dt);
+}
@@ -0,0 +1,173 @@
+package team.brickfire.robot_parts.base;
+
+import java.util.Arrays;
+
+/**
+ * <p>PID controller for following a line with two light sensors</p>
+ * <p>The error is the difference of the reflected light of the left and the right sensor. The commanded speed is
+ * fed forward as the speed of both wheels and the controller only adds the difference between them. Its output is
+ * that difference as a fraction of the commanded speed</p>
+ * <ul>
+ *     <li>The gains are taken from a table of speeds and interpolated between them</li>
+ *     <li>The derivative is low-pass filtered, so the sensor noise doesn't get amplified</li>
+ *     <li>The integral stops growing while the output is at its limit and is limited itself (anti-windup)</li>
+ *     <li>If a wheel would need more than full speed, the speed of both is lowered so steering still works</li>
+ * </ul>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class LineFollowingController {
+
+    // Speeds of the gain table (0-100%) and the gains found for them with the LineFollowingSimulation in tools
+    private static final double[] SPEEDS = {25, 50, 75, 100};
+    private static final double[] P_GAINS = {-0.5, -0.8, -0.8, -0.8};
+    private static final double[] I_GAINS = {-0.5, -0.5, -0.2, -0.05};
+    private static final double[] D_GAINS = {-0.005, -0.005, -0.01, -0.02};
+    // Time constant of the low-pass filter of the derivative in seconds
+    private static final double DERIVATIVE_FILTER = 0.02;
+    // Largest difference between the wheels, 1 stops the inner wheel
+    private static final double MAX_CORRECTION = 1;
+    // Largest part of the correction the integral can make up
+    private static final double MAX_INTEGRAL_CORRECTION = 0.3;
+
+    private final double[] speeds;
+    private final double[] pGains;
+    private final double[] iGains;
+    private final double[] dGains;
+
+    private double speed;
+    private double kP, kI, kD;
+    private double integral;
+    private double lastError;
+    private double derivative;
+    private boolean started;
+    private double correction;
+
+    /**
+     * <p>Creates a controller with the default gain table</p>
+     */
+    public LineFollowingController() {
+        this(SPEEDS, P_GAINS, I_GAINS, D_GAINS);
+    }
+
+    /**
+     * <p>Creates a controller with the same gains at every speed</p>
+     *
+     * @param kP Proportional gain, correction per unit of error
+     * @param kI Integral gain, correction per unit of error and second
+     * @param kD Derivative gain, correction per unit of error per second
+     */
+    public LineFollowingController(double kP, double kI, double kD) {
+        this(new double[] {0}, new double[] {kP}, new double[] {kI}, new double[] {kD});
+    }
+
+    /**
+     * <p>Creates a controller with the given gain table</p>
+     *
+     * @param speeds Speeds the gains are for (0-100%), in ascending order
+     * @param pGains Proportional gains, correction per unit of error
+     * @param iGains Integral gains, correction per unit of error and second
+     * @param dGains Derivative gains, correction per unit of error per second
+     */
+    public LineFollowingController(double[] speeds, double[] pGains, double[] iGains, double[] dGains) {
+        if (speeds.length == 0 || pGains.length != speeds.length || iGains.length != speeds.length
+                || dGains.length != speeds.length) {
+            throw new IllegalArgumentException("Gain table needs the same, non zero amount of entries in every column");
+        }
+        this.speeds = Arrays.copyOf(speeds, speeds.length);
+        this.pGains = Arrays.copyOf(pGains, pGains.length);
+        this.iGains = Arrays.copyOf(iGains, iGains.length);
+        this.dGains = Arrays.copyOf(dGains, dGains.length);
+    }
+
+    /**
+     * <p>Prepares the controller for following a line at a new speed</p>
+     *
+     * @param speed Commanded speed (0-100% of maximum capability)
+     */
+    public void reset(double speed) {
+        this.speed = Math.abs(speed);
+        this.kP = interpolate(pGains, this.speed);
+        this.kI = interpolate(iGains, this.speed);
+        this.kD = interpolate(dGains, this.speed);
+        integral = 0;
+        lastError = 0;
+        derivative = 0;
+        correction = 0;
+        started = false;
+    }
+
+    /**
+     * <p>Calculates the correction for a new error</p>
+     *
+     * @param error Reflected light of the left sensor minus the one of the right sensor
+     * @param dt Time since the last update in seconds
+     */
+    public void update(double error, double dt) {
+        if (started && dt > 0) {
+            double alpha = dt / (DERIVATIVE_FILTER + dt);
+            derivative += alpha * ((error - lastError) / dt - derivative);
+        }
+        lastError = error;
+        started = true;
+
+        double withoutIntegral = kP * error + kD * derivative;
+        double newIntegral = integral + error * dt;
+        if (kI != 0) {
+            double limit = MAX_INTEGRAL_CORRECTION / Math.abs(kI);
+            newIntegral = SpeedUtility.limitSpeed(newIntegral, -limit, limit);
+        }
+        double output = withoutIntegral + kI * newIntegral;
+        // Only integrate while the output isn't pushed further into its limit
+        if (Math.abs(output) <= MAX_CORRECTION || Math.abs(withoutIntegral + kI * integral) > Math.abs(output)) {
+            integral = newIntegral;
+        }
+        correction = SpeedUtility.limitSpeed(withoutIntegral + kI * integral, -MAX_CORRECTION, MAX_CORRECTION);
+    }
+
+    /**
+     * <p>Gets the last calculated correction</p>
+     *
+     * @return Difference between the wheels as a fraction of the commanded speed, positive makes the right wheel faster
+     */
+    public double getCorrection() {
+        return correction;
+    }
+
+    /**
+     * <p>Gets the speed the left wheel should drive at</p>
+     *
+     * @return Speed (0-100% of maximum capability)
+     */
+    public double getLeftSpeed() {
+        return baseSpeed() - correction * speed;
+    }
+
+    /**
+     * <p>Gets the speed the right wheel should drive at</p>
+     *
+     * @return Speed (0-100% of maximum capability)
+     */
+    public double getRightSpeed() {
+        return baseSpeed() + correction * speed;
+    }
+
+    // Commanded speed, lowered if the faster wheel would otherwise need more than 100%
+    private double baseSpeed() {
+        return Math.min(speed, 100 - Math.abs(correction) * speed);
+    }
+
+    private double interpolate(double[] gains, double speed) {
+        if (speed <= speeds[0]) {
+            return gains[0];
+        }
+        for (int i = 1; i < speeds.length; i++) {
+            if (speed <= speeds[i]) {
+                double t = (speed - speeds[i - 1]) / (speeds[i] - speeds[i - 1]);
+                return gains[i - 1] + t * (gains[i] - gains[i - 1]);
+            }
+        }
+        return gains[gains.length - 1];
+    }
+}
@@ -4,15 +4,41 @@ import lejos.hardware.port.Port;
 import lejos.hardware.sensor.EV3ColorSensor;
 import team.brickfire.data.color.Color;
 import team.brickfire.data.color.ColorMap;
+import team.brickfire.data.color.ColorVote;
+import team.brickfire.data.color.RGBClassifier;
+
+import java.util.Arrays;
 
 /**
  * <p>Implementation of an {@link lejos.hardware.sensor.EV3ColorSensor EV3ColorSensor}</p>
+ * <p>Switching the mode of the sensor takes a lot longer than reading it, so the sensor remembers its
+ * {@link Mode mode} and only switches when a read needs another one. How often it switched and how long the first
+ * read after a switch took is counted</p>
  * <p><i>Follows a variation of the Singleton-Pattern</i></p>
- * @version 2.0
+ * @version 3.0
  * @author Team Brickfire
  */
 public class ColorSensor extends Sensor<EV3ColorSensor> {
 
+    /**
+     * <p>Modes of the sensor that are used</p>
+     */
+    public enum Mode {
+        COLOR_ID, RED, RGB
+    }
+
+    private static final Color[] COLORS = Color.values();
+    // Scans taken when classifying by rgb
+    private static final int CLASSIFIED_SAMPLES = 3;
+
+    private final float[] redSample = new float[1];
+    private final float[] rgbSample = new float[3];
+    // Votes of the classified scans, indexed by ordinal
+    private final int[] classifiedCounts = new int[COLORS.length];
+    private Mode mode;
+    private int modeSwitches;
+    private long switchNanos;
+
     /**
      * Creates an EV3 color sensor
      * @param port Port the sensor is plugged into
@@ -20,6 +46,7 @@ public class ColorSensor extends Sensor<EV3ColorSensor> {
     protected ColorSensor(Port port) {
         super(new EV3ColorSensor(port));
         sensor.setCurrentMode(0);
+        mode = Mode.COLOR_ID;
     }
 
     /**
@@ -48,8 +75,10 @@ public class ColorSensor extends Sensor<EV3ColorSensor> {
      * @return Seen color
      */
     public Color getColor() {
-        sensor.setCurrentMode(0);
-        return Color.fromLeJOSID(sensor.getColorID());
+        long start = beforeRead(Mode.COLOR_ID);
+        int id = sensor.getColorID();
+        afterRead(start);
+        return Color.fromLeJOSID(id);
     }
 
     /**
@@ -57,9 +86,20 @@ public class ColorSensor extends Sensor<EV3ColorSensor> {
      * @return The reflected light
      */
     public float getReflectedLight() {
-        float[] value = {0};
-        sensor.getRedMode().fetchSample(value, 0);
-        return value[0];
+        fetchReflectedLight(redSample, 0);
+        return redSample[0];
+    }
+
+    /**
+     * <p>Reads the reflected light value in red mode into an existing array, so polling doesn't allocate</p>
+     *
+     * @param sample Array to store the value in
+     * @param offset Index to store the value at
+     */
+    public void fetchReflectedLight(float[] sample, int offset) {
+        long start = beforeRead(Mode.RED);
+        sensor.getRedMode().fetchSample(sample, offset);
+        afterRead(start);
     }
 
     /**
@@ -73,17 +113,83 @@ public class ColorSensor extends Sensor<EV3ColorSensor> {
 
     /**
      * <p>Gets the {@link Color color} n-times and then maps it according to the given {@link ColorMap map}</p>
+     * <p>If the map was calibrated, the colors are classified from rgb scans instead of the firmwares color ids.
+     * Those are reliable enough that at most {@value #CLASSIFIED_SAMPLES} scans are taken and the most frequent
+     * color wins</p>
      * @param colorMap Map to use
      * @param n Number of tries of getting color
      * @return The mapped color
      */
     public Color getColor(ColorMap colorMap, int n) {
-        Color[] colors = new Color[n];
-        for (int i = 0; i < colors.length; i++) {
-            colors[i] = getColor();
+        RGBClassifier classifier = colorMap.getClassifier();
+        if (classifier != null) {
+            return classify(classifier, Math.min(n, CLASSIFIED_SAMPLES));
+        }
+        ColorVote vote = new ColorVote(colorMap, n, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) {
+            vote.add(getColor());
         }
+        return vote.getColor();
+    }
 
-        return colorMap.getPrioritisedValueBySum(colorMap.mappedValues(colorMap.repeatByPriority(colors)));
+    /**
+     * <p>Gets the {@link Color color} up to n-times and then maps it according to the given {@link ColorMap map}</p>
+     * <p>Scanning stops early once the result is at least as sure as the given confidence, see
+     * {@link #getColorVote(ColorMap, int, double)}. Calibrated maps classify rgb scans like
+     * {@link #getColor(ColorMap, int)}</p>
+     * @param colorMap Map to use
+     * @param n Largest number of tries of getting color
+     * @param confidence Probability (0-1) that more scans wouldn't change the result, needed to stop early
+     * @return The mapped color
+     */
+    public Color getColor(ColorMap colorMap, int n, double confidence) {
+        RGBClassifier classifier = colorMap.getClassifier();
+        if (classifier != null) {
+            return classify(classifier, Math.min(n, CLASSIFIED_SAMPLES));
+        }
+        return getColorVote(colorMap, n, confidence).getColor();
+    }
+
+    /**
+     * <p>Gets the {@link Color color} until the mapped color is decided</p>
+     * <p>The vote ends when the remaining scans are unlikely enough to change the result, see {@link ColorVote}, or
+     * after n scans</p>
+     * <p>Always uses the firmwares color ids, even if the map was calibrated for rgb scans</p>
+     *
+     * @param colorMap Map to use
+     * @param n Largest number of tries of getting color
+     * @param confidence Probability (0-1) that more scans wouldn't change the result, needed to stop early. 1 or above
+     *                   only stops when the result can't change anymore, so it is the same as with n scans
+     * @return The vote with the mapped color, its confidence and the amount of scans
+     */
+    public ColorVote getColorVote(ColorMap colorMap, int n, double confidence) {
+        ColorVote vote = new ColorVote(colorMap, n, confidence);
+        while (vote.add(getColor())) {
+            // Scan until decided
+        }
+        return vote;
+    }
+
+    /**
+     * <p>Classifies n rgb scans and returns the most frequent color</p>
+     *
+     * @param classifier Classifier to use
+     * @param n Number of scans
+     * @return The most frequent color, on a tie the one seen first
+     */
+    private Color classify(RGBClassifier classifier, int n) {
+        int[] counts = classifiedCounts;
+        Arrays.fill(counts, 0);
+        Color best = null;
+        for (int i = 0; i < n; i++) {
+            fetchRGB(rgbSample, 0);
+            Color color = classifier.classify(rgbSample[0], rgbSample[1], rgbSample[2]);
+            counts[color.ordinal()]++;
+            if (best == null || counts[color.ordinal()] > counts[best.ordinal()]) {
+                best = color;
+            }
+        }
+        return best;
     }
 
     /**
@@ -93,7 +199,79 @@ public class ColorSensor extends Sensor<EV3ColorSensor> {
      */
     public float[] getRGB() {
         float[] value = {0, 0, 0};
-        sensor.getRGBMode().fetchSample(value, 0);
+        fetchRGB(value, 0);
         return value;
     }
+
+    /**
+     * <p>Scans the rgb values into an existing array</p>
+     *
+     * @param sample Array to store red, green and blue in, each value reaching from 0-1
+     * @param offset Index to store red at
+     */
+    public void fetchRGB(float[] sample, int offset) {
+        long start = beforeRead(Mode.RGB);
+        sensor.getRGBMode().fetchSample(sample, offset);
+        afterRead(start);
+    }
+
+    /**
+     * <p>Returns the reflected light derived from an rgb scan, so no switch to red mode is needed</p>
+     * <p>Red mode lights the surface with the red LED only, which is the red value of an rgb scan. The two aren't
+     * calibrated the same way, so values should only be compared to others taken the same way</p>
+     *
+     * @return The reflected light
+     */
+    public float getReflectedLightFromRGB() {
+        fetchRGB(rgbSample, 0);
+        return rgbSample[0];
+    }
+
+    /**
+     * <p>Gets the mode the sensor is in</p>
+     *
+     * @return Current mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * <p>Gets how often the mode was switched since the sensor was created</p>
+     *
+     * @return Amount of switches
+     */
+    public int getModeSwitches() {
+        return modeSwitches;
+    }
+
+    /**
+     * <p>Gets the time spent on reads that switched the mode</p>
+     *
+     * @return Time in milliseconds
+     */
+    public double getModeSwitchTime() {
+        return switchNanos / 1e6;
+    }
+
+    /**
+     * <p>Switches to the mode the read needs</p>
+     *
+     * @param readMode Mode of the read
+     * @return Start time of the read if it switches the mode, otherwise 0
+     */
+    private long beforeRead(Mode readMode) {
+        if (mode == readMode) {
+            return 0;
+        }
+        mode = readMode;
+        modeSwitches++;
+        return System.nanoTime();
+    }
+
+    private void afterRead(long start) {
+        if (start != 0) {
+            switchNanos += System.nanoTime() - start;
+        }
+    }
 }
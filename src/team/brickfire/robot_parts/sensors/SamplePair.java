@@ -0,0 +1,53 @@
+package team.brickfire.robot_parts.sensors;
+
+/**
+ * <p>Samples of two sensors taken at about the same time</p>
+ * <p>Filled by {@link SensorPoller#snapshot(SensorPoller, SensorPoller, SamplePair)} and meant to be reused, so
+ * reading the sensors in a control loop doesn't allocate</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class SamplePair {
+
+    float first;
+    float second;
+    long firstTime;
+    long secondTime;
+
+    /**
+     * <p>Gets the sample of the first sensor</p>
+     *
+     * @return The sample
+     */
+    public float getFirst() {
+        return first;
+    }
+
+    /**
+     * <p>Gets the sample of the second sensor</p>
+     *
+     * @return The sample
+     */
+    public float getSecond() {
+        return second;
+    }
+
+    /**
+     * <p>Gets when the older of the two samples was taken</p>
+     *
+     * @return Time in nanoseconds, as returned by {@link System#nanoTime()}
+     */
+    public long getTime() {
+        return Math.min(firstTime, secondTime);
+    }
+
+    /**
+     * <p>Gets how far apart the two samples were taken</p>
+     *
+     * @return Time in nanoseconds
+     */
+    public long getSkew() {
+        return Math.abs(firstTime - secondTime);
+    }
+}
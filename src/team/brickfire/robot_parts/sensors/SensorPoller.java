@@ -0,0 +1,292 @@
+package team.brickfire.robot_parts.sensors;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Reads the reflected light of a {@link ColorSensor} on its own thread</p>
+ * <p>Samples are stored with their time in a ring buffer that is allocated once. Control loops read the latest
+ * sample or a matching pair of two sensors without waiting for the sensor and without allocating</p>
+ * <p>There is only one thread writing. Every slot of the buffer has a sequence number, the index of the sample in
+ * it, which is cleared while the slot is written. Readers check it before and after reading a slot, so they notice
+ * if the sample was overwritten in between. Sequence numbers, values and times are all kept in atomic arrays,
+ * so these reads can't be reordered around each other</p>
+ * <p>The poller only reads while it is {@link #resume() resumed}, so the sensor can be used in other modes in
+ * between</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class SensorPoller {
+
+    // Has to be a power of two
+    private static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    private final ColorSensor sensor;
+    private final long periodNanos;
+    // Index of the sample in every slot, -1 while it is written
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLongArray times = new AtomicLongArray(CAPACITY);
+    // Raw bits of the floats
+    private final AtomicIntegerArray values = new AtomicIntegerArray(CAPACITY);
+    private final float[] scratch = new float[1];
+    private final Thread thread;
+
+    // Amount of samples written so far, the latest one is at (written - 1) & MASK
+    private volatile long written;
+    // Samples from before the last resume are outdated and not returned
+    private volatile long resumeTime;
+    // Index of the first sample since the last resume. The rate is only measured from there on, so the time the
+    // poller was paused doesn't count
+    private volatile long resumeSample;
+
+    // Guarded by this
+    private boolean active;
+    private boolean sampling;
+
+    /**
+     * <p>Creates a paused poller and starts its thread</p>
+     *
+     * @param sensor Sensor to read
+     * @param periodMillis Time between two samples in milliseconds
+     */
+    public SensorPoller(ColorSensor sensor, double periodMillis) {
+        this.sensor = sensor;
+        this.periodNanos = (long) (periodMillis * 1e6);
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            sequences.set(slot, -1);
+        }
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                poll();
+            }
+        }, "SensorPoller");
+        // Just below the control loop, which has to run when a sample is there
+        thread.setPriority(Thread.MAX_PRIORITY - 1);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * <p>Starts reading the sensor</p>
+     */
+    public synchronized void resume() {
+        resumeSample = written;
+        resumeTime = System.nanoTime();
+        active = true;
+        notifyAll();
+    }
+
+    /**
+     * <p>Stops reading the sensor and waits until the current read is done, so the sensor can be used
+     * otherwise</p>
+     */
+    public synchronized void pause() {
+        active = false;
+        boolean interrupted = false;
+        while (sampling) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * <p>Gets the latest sample</p>
+     *
+     * @return Reflected light or NaN if nothing was read since the last resume
+     */
+    public float latest() {
+        while (true) {
+            long sample = written - 1;
+            if (sample < 0) {
+                return Float.NaN;
+            }
+            long bits = bitsOf(sample);
+            long time = timeOf(sample);
+            if (bits >= 0 && time >= 0) {
+                return time < resumeTime ? Float.NaN : Float.intBitsToFloat((int) bits);
+            }
+        }
+    }
+
+    /**
+     * <p>Gets when the latest sample was taken</p>
+     *
+     * @return Time in nanoseconds, as returned by {@link System#nanoTime()} or 0 if nothing was read yet
+     */
+    public long latestTime() {
+        while (true) {
+            long sample = written - 1;
+            if (sample < 0) {
+                return 0;
+            }
+            long time = timeOf(sample);
+            if (time >= 0) {
+                return time;
+            }
+        }
+    }
+
+    /**
+     * <p>Gets how many samples per second were read, over the samples still in the buffer that were read since the
+     * last resume</p>
+     *
+     * @return Samples per second or 0 if there aren't two samples since the last resume yet
+     */
+    public double getSampleRate() {
+        while (true) {
+            long last = written - 1;
+            long first = Math.max(resumeSample, last - CAPACITY / 2);
+            if (last <= first) {
+                return 0;
+            }
+            long lastTime = timeOf(last);
+            long firstTime = timeOf(first);
+            if (lastTime >= 0 && firstTime >= 0) {
+                return lastTime > firstTime ? (last - first) * 1e9 / (lastTime - firstTime) : 0;
+            }
+        }
+    }
+
+    /**
+     * <p>Reads the samples of two pollers that were taken closest to each other</p>
+     * <p>The older of the two latest samples is taken and matched with the sample of the other poller closest to
+     * it in time</p>
+     *
+     * @param first First poller
+     * @param second Second poller
+     * @param pair Pair to store the samples in. A sample is NaN if its poller didn't read anything since the last
+     *             resume
+     */
+    public static void snapshot(SensorPoller first, SensorPoller second, SamplePair pair) {
+        if (first.latestTime() <= second.latestTime()) {
+            first.readClosest(Long.MAX_VALUE, pair, true);
+            second.readClosest(pair.firstTime, pair, false);
+        } else {
+            second.readClosest(Long.MAX_VALUE, pair, false);
+            first.readClosest(pair.secondTime, pair, true);
+        }
+    }
+
+    /**
+     * <p>Reads the sample taken closest to the given time, going back from the latest</p>
+     */
+    private void readClosest(long time, SamplePair pair, boolean first) {
+        while (true) {
+            long latest = written - 1;
+            if (latest < 0) {
+                store(pair, first, Float.NaN, 0);
+                return;
+            }
+            long oldest = Math.max(0, latest - CAPACITY / 2);
+            long sample = latest;
+            long sampleTime = timeOf(sample);
+            boolean intact = sampleTime >= 0;
+            while (intact && sample > oldest && sampleTime > time) {
+                long previousTime = timeOf(sample - 1);
+                intact = previousTime >= 0;
+                if (!intact || time - previousTime >= sampleTime - time) {
+                    break;
+                }
+                sample--;
+                sampleTime = previousTime;
+            }
+            long bits = intact ? bitsOf(sample) : -1;
+            if (bits >= 0) {
+                store(pair, first, sampleTime < resumeTime ? Float.NaN : Float.intBitsToFloat((int) bits),
+                        sampleTime);
+                return;
+            }
+        }
+    }
+
+    private static void store(SamplePair pair, boolean first, float value, long time) {
+        if (first) {
+            pair.first = value;
+            pair.firstTime = time;
+        } else {
+            pair.second = value;
+            pair.secondTime = time;
+        }
+    }
+
+    /**
+     * <p>Reads the time of a sample</p>
+     *
+     * @return Time of the sample or -1 if its slot is being written or holds another sample
+     */
+    private long timeOf(long sample) {
+        int slot = (int) (sample & MASK);
+        if (sequences.get(slot) != sample) {
+            return -1;
+        }
+        long time = times.get(slot);
+        return sequences.get(slot) == sample ? time : -1;
+    }
+
+    /**
+     * <p>Reads the raw bits of the value of a sample</p>
+     *
+     * @return Bits of the value (0 to 2^32 - 1) or -1 if its slot is being written or holds another sample
+     */
+    private long bitsOf(long sample) {
+        int slot = (int) (sample & MASK);
+        if (sequences.get(slot) != sample) {
+            return -1;
+        }
+        long bits = values.get(slot) & 0xFFFFFFFFL;
+        return sequences.get(slot) == sample ? bits : -1;
+    }
+
+    private void poll() {
+        long next = System.nanoTime();
+        while (true) {
+            synchronized (this) {
+                while (!active) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    next = System.nanoTime();
+                }
+                sampling = true;
+            }
+
+            sensor.fetchReflectedLight(scratch, 0);
+            long now = System.nanoTime();
+            long sample = written;
+            int slot = (int) (sample & MASK);
+            sequences.set(slot, -1);
+            values.set(slot, Float.floatToRawIntBits(scratch[0]));
+            times.set(slot, now);
+            sequences.set(slot, sample);
+            written = sample + 1;
+
+            synchronized (this) {
+                sampling = false;
+                notifyAll();
+            }
+
+            next += periodNanos;
+            long remaining = next - System.nanoTime();
+            if (remaining > 0) {
+                try {
+                    Thread.sleep(remaining / 1000000, (int) (remaining % 1000000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } else {
+                next = System.nanoTime();
+            }
+        }
+    }
+}
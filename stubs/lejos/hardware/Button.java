@@ -0,0 +1,30 @@
+package lejos.hardware;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class Button {
+
+    public static final int ID_UP = 1;
+    public static final int ID_ENTER = 2;
+    public static final int ID_DOWN = 4;
+    public static final int ID_RIGHT = 8;
+    public static final int ID_LEFT = 16;
+    public static final int ID_ESCAPE = 32;
+
+    public static Key UP;
+    public static Key ENTER;
+    public static Key DOWN;
+    public static Key RIGHT;
+    public static Key LEFT;
+    public static Key ESCAPE;
+
+    public static int waitForAnyPress() {
+        return 0;
+    }
+
+    public static int waitForAnyPress(int timeout) {
+        return 0;
+    }
+}
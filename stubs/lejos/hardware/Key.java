@@ -0,0 +1,20 @@
+package lejos.hardware;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public interface Key {
+
+    int getId();
+
+    String getName();
+
+    boolean isDown();
+
+    boolean isUp();
+
+    void waitForPress();
+
+    void waitForPressAndRelease();
+}
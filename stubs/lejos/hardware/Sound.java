@@ -0,0 +1,17 @@
+package lejos.hardware;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class Sound {
+
+    public static void beep() {
+    }
+
+    public static void twoBeeps() {
+    }
+
+    public static void beepSequence() {
+    }
+}
@@ -0,0 +1,20 @@
+package lejos.hardware.lcd;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class LCD {
+
+    public static void clear() {
+    }
+
+    public static void clear(int line) {
+    }
+
+    public static void drawString(String text, int x, int y) {
+    }
+
+    public static void drawInt(int value, int x, int y) {
+    }
+}
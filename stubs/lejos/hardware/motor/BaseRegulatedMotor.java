@@ -0,0 +1,106 @@
+package lejos.hardware.motor;
+
+import lejos.robotics.RegulatedMotor;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public abstract class BaseRegulatedMotor implements RegulatedMotor {
+
+    public void forward() {
+    }
+
+    public void backward() {
+    }
+
+    public void stop() {
+    }
+
+    public void stop(boolean immediateReturn) {
+    }
+
+    public void flt() {
+    }
+
+    public void flt(boolean immediateReturn) {
+    }
+
+    public boolean isMoving() {
+        return false;
+    }
+
+    public boolean isStalled() {
+        return false;
+    }
+
+    public void setStallThreshold(int error, int time) {
+    }
+
+    public void rotate(int angle) {
+    }
+
+    public void rotate(int angle, boolean immediateReturn) {
+    }
+
+    public void rotateTo(int limitAngle) {
+    }
+
+    public void rotateTo(int limitAngle, boolean immediateReturn) {
+    }
+
+    public int getLimitAngle() {
+        return 0;
+    }
+
+    public void waitComplete() {
+    }
+
+    public int getTachoCount() {
+        return 0;
+    }
+
+    public void resetTachoCount() {
+    }
+
+    public int getPosition() {
+        return 0;
+    }
+
+    public int getSpeed() {
+        return 0;
+    }
+
+    public void setSpeed(int speed) {
+    }
+
+    public void setSpeed(float speed) {
+    }
+
+    public float getMaxSpeed() {
+        return 0;
+    }
+
+    public float getRotationSpeed() {
+        return 0;
+    }
+
+    public int getAcceleration() {
+        return 0;
+    }
+
+    public void setAcceleration(int acceleration) {
+    }
+
+    public void synchronizeWith(RegulatedMotor[] motors) {
+    }
+
+    public void startSynchronization() {
+    }
+
+    public void endSynchronization() {
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,13 @@
+package lejos.hardware.motor;
+
+import lejos.hardware.port.Port;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class EV3LargeRegulatedMotor extends BaseRegulatedMotor {
+
+    public EV3LargeRegulatedMotor(Port port) {
+    }
+}
@@ -0,0 +1,13 @@
+package lejos.hardware.port;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class MotorPort {
+
+    public static Port A;
+    public static Port B;
+    public static Port C;
+    public static Port D;
+}
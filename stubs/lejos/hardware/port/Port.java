@@ -0,0 +1,10 @@
+package lejos.hardware.port;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public interface Port {
+
+    String getName();
+}
@@ -0,0 +1,38 @@
+package lejos.hardware.sensor;
+
+import lejos.hardware.port.Port;
+import lejos.robotics.SampleProvider;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class EV3ColorSensor extends UARTSensor {
+
+    public EV3ColorSensor(Port port) {
+        super(port);
+    }
+
+    public int getColorID() {
+        return lejos.robotics.Color.NONE;
+    }
+
+    public SampleProvider getColorIDMode() {
+        return null;
+    }
+
+    public SampleProvider getRedMode() {
+        return null;
+    }
+
+    public SampleProvider getRGBMode() {
+        return null;
+    }
+
+    public SampleProvider getAmbientMode() {
+        return null;
+    }
+
+    public void setFloodlight(boolean floodlight) {
+    }
+}
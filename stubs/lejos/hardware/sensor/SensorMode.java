@@ -0,0 +1,10 @@
+package lejos.hardware.sensor;
+
+import lejos.robotics.SampleProvider;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public interface SensorMode extends SampleProvider {
+}
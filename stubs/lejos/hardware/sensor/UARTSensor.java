@@ -0,0 +1,46 @@
+package lejos.hardware.sensor;
+
+import lejos.hardware.port.Port;
+import lejos.robotics.SampleProvider;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class UARTSensor {
+
+    public UARTSensor(Port port) {
+    }
+
+    public int getModeCount() {
+        return 0;
+    }
+
+    public int getCurrentMode() {
+        return 0;
+    }
+
+    public void setCurrentMode(int mode) {
+    }
+
+    public void setCurrentMode(String mode) {
+    }
+
+    public SampleProvider getMode(int mode) {
+        return null;
+    }
+
+    public SampleProvider getMode(String mode) {
+        return null;
+    }
+
+    public int sampleSize() {
+        return 0;
+    }
+
+    public void fetchSample(float[] sample, int offset) {
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,17 @@
+package lejos.robotics;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class Color {
+
+    public static final int NONE = -1;
+    public static final int RED = 0;
+    public static final int GREEN = 1;
+    public static final int BLUE = 2;
+    public static final int YELLOW = 3;
+    public static final int WHITE = 6;
+    public static final int BLACK = 7;
+    public static final int BROWN = 13;
+}
@@ -0,0 +1,38 @@
+package lejos.robotics.chassis;
+
+import lejos.robotics.RegulatedMotor;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class WheeledChassis implements Chassis {
+
+    public static final int TYPE_DIFFERENTIAL = 2;
+
+    public WheeledChassis(Wheel[] wheels, int type) {
+    }
+
+    public static Modeler modelWheel(RegulatedMotor motor, double diameter) {
+        return new Modeler();
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    public static class Modeler implements Wheel {
+
+        public Modeler offset(double offset) {
+            return this;
+        }
+
+        public Modeler invert(boolean invert) {
+            return this;
+        }
+
+        public Modeler gearRatio(double ratio) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package lejos.robotics.navigation;
+
+import lejos.robotics.chassis.Chassis;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class MovePilot {
+
+    public MovePilot(Chassis chassis) {
+    }
+
+    public void arc(double radius, double angle) {
+    }
+
+    public void arc(double radius, double angle, boolean immediateReturn) {
+    }
+
+    public void forward() {
+    }
+
+    public void backward() {
+    }
+
+    public void stop() {
+    }
+
+    public boolean isMoving() {
+        return false;
+    }
+
+    public void rotate(double angle) {
+    }
+
+    public void rotate(double angle, boolean immediateReturn) {
+    }
+
+    public void travel(double distance) {
+    }
+
+    public void travel(double distance, boolean immediateReturn) {
+    }
+
+    public double getLinearSpeed() {
+        return 0;
+    }
+
+    public void setLinearSpeed(double speed) {
+    }
+
+    public double getMaxLinearSpeed() {
+        return 0;
+    }
+
+    public void setLinearAcceleration(double acceleration) {
+    }
+
+    public double getAngularSpeed() {
+        return 0;
+    }
+
+    public void setAngularSpeed(double speed) {
+    }
+
+    public double getMaxAngularSpeed() {
+        return 0;
+    }
+
+    public void setAngularAcceleration(double acceleration) {
+    }
+}
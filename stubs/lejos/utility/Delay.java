@@ -0,0 +1,11 @@
+package lejos.utility;
+
+/**
+ * <p>Stub of the leJOS class of the same name, so the hardware independent code compiles on a normal computer</p>
+ * <p>Only has the members the robot code uses. Nothing talks to hardware</p>
+ */
+public class Delay {
+
+    public static void msDelay(long period) {
+    }
+}
@@ -0,0 +1,232 @@
+package team.brickfire.actions.circuit_drive;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Compares the route table of {@link CircuitNetwork} with searching every route on demand</p>
+ * <p>The reference search doesn't share any code with the network. It relaxes the time of every line driven in
+ * every direction until nothing changes anymore
+ * (<a href="https://en.wikipedia.org/wiki/Bellman%E2%80%93Ford_algorithm">Bellman-Ford</a>), weighed by the same
+ * {@link DrivingTimeModel}. For every start, goal, heading at the start and orientation at the goal the table has to
+ * return the time of the fastest way, and driving its stops has to take exactly that time</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class CircuitNetworkTest {
+
+    // Lines of the field as in the network before the route table
+    private static final CircuitPosition[][] LINES = {
+            {CircuitPosition.YELLOW_FAR, CircuitPosition.WEST_ROOMS_FAR},
+            {CircuitPosition.YELLOW_CLOSE, CircuitPosition.WEST_ROOMS_CLOSE},
+            {CircuitPosition.BLUE_FAR, CircuitPosition.WEST_ROOMS_FAR},
+            {CircuitPosition.BLUE_CLOSE, CircuitPosition.WEST_ROOMS_CLOSE},
+            {CircuitPosition.WEST_ROOMS_CLOSE, CircuitPosition.WEST_ROOMS_FAR},
+            {CircuitPosition.WEST_ROOMS_CLOSE, CircuitPosition.WEST},
+            {CircuitPosition.RED_FAR, CircuitPosition.EAST_ROOMS_FAR},
+            {CircuitPosition.RED_CLOSE, CircuitPosition.EAST_ROOMS_CLOSE},
+            {CircuitPosition.GREEN_FAR, CircuitPosition.EAST_ROOMS_FAR},
+            {CircuitPosition.GREEN_CLOSE, CircuitPosition.EAST_ROOMS_CLOSE},
+            {CircuitPosition.EAST_ROOMS_CLOSE, CircuitPosition.EAST_ROOMS_FAR},
+            {CircuitPosition.EAST_ROOMS_CLOSE, CircuitPosition.EAST},
+            {CircuitPosition.CENTER, CircuitPosition.NORTH},
+            {CircuitPosition.CENTER, CircuitPosition.EAST},
+            {CircuitPosition.CENTER, CircuitPosition.WEST},
+            {CircuitPosition.CENTER, CircuitPosition.SOUTH},
+            {CircuitPosition.NORTH_WEST, CircuitPosition.WEST},
+            {CircuitPosition.NORTH_EAST, CircuitPosition.NORTH},
+            {CircuitPosition.NORTH_EAST, CircuitPosition.EAST},
+            {CircuitPosition.SOUTH_WEST, CircuitPosition.SOUTH},
+            {CircuitPosition.SOUTH_WEST, CircuitPosition.WEST},
+            {CircuitPosition.SOUTH_EAST, CircuitPosition.SOUTH},
+            {CircuitPosition.SOUTH_EAST, CircuitPosition.EAST}
+    };
+    private static final CircuitPosition[] POSITIONS = CircuitPosition.values();
+    private static final CircuitOrientation[] ORIENTATIONS = CircuitOrientation.values();
+    // Turns smaller than this count as driving straight on, as on the robot
+    private static final double STRAIGHT_TOLERANCE = 0.5;
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void routeTableMatchesSearch() {
+        compareAllRoutes(50, 40);
+    }
+
+    @Test
+    public void routeTableMatchesSearchWithSlowTurns() {
+        compareAllRoutes(100, 10);
+    }
+
+    @Test
+    public void orientationMatchesHeading() {
+        CircuitNetwork network = new CircuitNetwork(50, 40);
+        for (CircuitPosition start : POSITIONS) {
+            for (CircuitPosition end : POSITIONS) {
+                for (CircuitOrientation startOrientation : ORIENTATIONS) {
+                    if (startOrientation == CircuitOrientation.NONE) {
+                        continue;
+                    }
+                    for (CircuitOrientation endOrientation : ORIENTATIONS) {
+                        assertArrayEquals(network.getPath(start, end, startOrientation.getHeading(), endOrientation),
+                                network.getPath(start, end, startOrientation, endOrientation));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void compareAllRoutes(double drivingSpeed, double turningSpeed) {
+        CircuitNetwork network = new CircuitNetwork(drivingSpeed, turningSpeed);
+        DrivingTimeModel model = new DrivingTimeModel(drivingSpeed, turningSpeed);
+        for (CircuitPosition start : POSITIONS) {
+            for (int headingId = 0; headingId < network.getHeadingCount(); headingId++) {
+                double heading = network.getHeading(headingId);
+                double[][] arrivals = search(model, start, heading);
+                for (CircuitPosition end : POSITIONS) {
+                    for (CircuitOrientation orientation : ORIENTATIONS) {
+                        String route = start + " (" + heading + ") to " + end + " (" + orientation + ")";
+                        CircuitPosition[] path = network.getPath(start, end, heading, orientation);
+                        double time = network.getTime(start, end, headingId, orientation);
+                        if (start == end) {
+                            // The robot only turns on the spot
+                            assertEquals(route, 0, path.length);
+                            assertEquals(route, model.turnTime(turn(heading, orientation)), time, EPSILON);
+                            continue;
+                        }
+                        double best = fastest(model, arrivals, end, orientation);
+                        assertTrue(route + " can't be reached", best < Double.POSITIVE_INFINITY);
+                        assertEquals(route, best, time, EPSILON);
+                        assertEquals(route + " via " + Arrays.toString(path), best,
+                                drive(model, start, heading, path, orientation), EPSILON);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Calculates the fastest arrival over every line in every direction</p>
+     *
+     * @return Time of arriving at the second position from the first one, infinity if it can't be reached
+     */
+    private static double[][] search(DrivingTimeModel model, CircuitPosition start, double heading) {
+        double[][] arrivals = new double[POSITIONS.length][POSITIONS.length];
+        for (double[] row : arrivals) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (CircuitPosition next : POSITIONS) {
+            if (connected(start, next)) {
+                arrivals[start.ordinal()][next.ordinal()] = leg(model, start, next, heading, false);
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (CircuitPosition from : POSITIONS) {
+                for (CircuitPosition via : POSITIONS) {
+                    double arrival = arrivals[from.ordinal()][via.ordinal()];
+                    if (arrival == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    for (CircuitPosition to : POSITIONS) {
+                        if (!connected(via, to)) {
+                            continue;
+                        }
+                        double time = arrival + leg(model, via, to, heading(from, via), true);
+                        if (time < arrivals[via.ordinal()][to.ordinal()]) {
+                            arrivals[via.ordinal()][to.ordinal()] = time;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+        return arrivals;
+    }
+
+    private static double fastest(DrivingTimeModel model, double[][] arrivals, CircuitPosition end,
+                                  CircuitOrientation orientation) {
+        double best = Double.POSITIVE_INFINITY;
+        for (CircuitPosition from : POSITIONS) {
+            double arrival = arrivals[from.ordinal()][end.ordinal()];
+            if (arrival < Double.POSITIVE_INFINITY) {
+                best = Math.min(best, arrival + model.turnTime(turn(heading(from, end), orientation)));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * <p>Drives straight on from stop to stop and turns at each of them, except where the robot already faces the
+     * next stop</p>
+     *
+     * @return Time of driving the stops or infinity if there is no straight line between two of them
+     */
+    private static double drive(DrivingTimeModel model, CircuitPosition start, double heading,
+                                CircuitPosition[] stops, CircuitOrientation orientation) {
+        double time = 0;
+        CircuitPosition position = start;
+        boolean started = false;
+        for (CircuitPosition stop : stops) {
+            double direction = heading(position, stop);
+            while (position != stop) {
+                CircuitPosition next = null;
+                for (CircuitPosition candidate : POSITIONS) {
+                    if (connected(position, candidate) && turn(direction, heading(position, candidate)) == 0) {
+                        next = candidate;
+                    }
+                }
+                if (next == null) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                time += leg(model, position, next, heading, started);
+                heading = heading(position, next);
+                position = next;
+                started = true;
+            }
+        }
+        return time + model.turnTime(turn(heading, orientation));
+    }
+
+    /**
+     * <p>Time of driving along one line. Turning into it costs the turn and, except at the start, the stop</p>
+     */
+    private static double leg(DrivingTimeModel model, CircuitPosition from, CircuitPosition to, double heading,
+                              boolean started) {
+        Vector2D step = to.getAsVector().subtract(from.getAsVector());
+        double angle = turn(heading, step.heading());
+        double time = model.driveTime(step.length());
+        if (angle > 0) {
+            time += model.turnTime(angle) + (started ? model.stopTime() : 0);
+        }
+        return time;
+    }
+
+    private static boolean connected(CircuitPosition a, CircuitPosition b) {
+        for (CircuitPosition[] line : LINES) {
+            if ((line[0] == a && line[1] == b) || (line[0] == b && line[1] == a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double heading(CircuitPosition from, CircuitPosition to) {
+        return to.getAsVector().subtract(from.getAsVector()).heading();
+    }
+
+    private static double turn(double from, double to) {
+        double angle = Math.abs(Vector2D.turn(from, to));
+        return angle < STRAIGHT_TOLERANCE ? 0 : angle;
+    }
+
+    private static double turn(double from, CircuitOrientation to) {
+        return to == CircuitOrientation.NONE ? 0 : turn(from, to.getHeading());
+    }
+}
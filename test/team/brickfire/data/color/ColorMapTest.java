@@ -0,0 +1,296 @@
+package team.brickfire.data.color;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Compares {@link ColorMap#vote(Color...)}, {@link ColorMap#voteWeight(Color)} and {@link ColorVote} with the
+ * pipeline ColorSensor used before them: repeat by priority, map and sum</p>
+ * <p>The pipeline is the HashMap based code of ColorMap and its maps before they were backed by arrays, copied into
+ * {@link BaselineColorMap}. It picked among equally heavy colors in the iteration order of a HashMap, which depends
+ * on the identity hash codes of the colors and changes from run to run. The new code picks the one with the lowest
+ * ordinal instead, so on a tie the result has to be that one and the baseline has to have picked one of the tied
+ * colors</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class ColorMapTest {
+
+    private static final Color[] COLORS = Color.values();
+    private static final ColorMap[] MAPS = {new LaundryBlockColorMap(), new LaundryBasketColorMap(),
+            new RoomBlockColorMap()};
+    private static final BaselineColorMap[] BASELINES = {BaselineColorMap.laundryBlock(),
+            BaselineColorMap.laundryBasket(), BaselineColorMap.roomBlock()};
+    private static final int SAMPLES = 10;
+    private static final int RANDOM_SCANS = 10000;
+
+    @Test
+    public void voteMatchesOldPipelineOnShortScans() {
+        for (int i = 0; i < MAPS.length; i++) {
+            for (int length = 1; length <= 3; length++) {
+                Color[] scan = new Color[length];
+                compareAll(i, scan, 0);
+            }
+        }
+    }
+
+    @Test
+    public void voteMatchesOldPipelineOnNoisyScans() {
+        for (int i = 0; i < MAPS.length; i++) {
+            Random random = new Random(2022);
+            for (int j = 0; j < RANDOM_SCANS; j++) {
+                Color actual = COLORS[random.nextInt(COLORS.length)];
+                Color[] scan = new Color[SAMPLES];
+                for (int k = 0; k < SAMPLES; k++) {
+                    scan[k] = random.nextInt(4) == 0 ? COLORS[random.nextInt(COLORS.length)] : actual;
+                }
+                compare(i, scan);
+            }
+        }
+    }
+
+    @Test
+    public void voteWeightMatchesOldPipeline() {
+        // Scans of a and b that are exactly as heavy as each other if the weights are right, so the lower ordinal
+        // has to win. One scan more of the other color has to tip the vote
+        for (int i = 0; i < MAPS.length; i++) {
+            ColorMap map = MAPS[i];
+            for (Color a : COLORS) {
+                for (Color b : COLORS) {
+                    int weightA = map.voteWeight(a);
+                    int weightB = map.voteWeight(b);
+                    if (weightA == 0 || weightB == 0 || map.mappedValue(a) == map.mappedValue(b)) {
+                        continue;
+                    }
+                    compare(i, repeat(a, weightB, b, weightA));
+                    compare(i, repeat(a, weightB + 1, b, weightA));
+                    compare(i, repeat(a, weightB, b, weightA + 1));
+                }
+            }
+        }
+    }
+
+    private static void compareAll(int map, Color[] scan, int index) {
+        if (index == scan.length) {
+            compare(map, scan);
+            return;
+        }
+        for (Color color : COLORS) {
+            scan[index] = color;
+            compareAll(map, scan, index + 1);
+        }
+    }
+
+    private static void compare(int index, Color[] scan) {
+        ColorMap map = MAPS[index];
+        BaselineColorMap baseline = BASELINES[index];
+        String message = map.getClass().getSimpleName() + " " + Arrays.toString(scan);
+
+        Color old = baseline.getPrioritisedValueBySum(baseline.mappedValues(baseline.repeatByPriority(scan)));
+        Set<Color> heaviest = baseline.heaviest(baseline.mappedValues(baseline.repeatByPriority(scan)));
+        Color expected = heaviest.isEmpty() ? null : heaviest.iterator().next();
+        if (heaviest.size() > 1) {
+            assertTrue(message + " " + old + " isn't one of " + heaviest, heaviest.contains(old));
+        } else {
+            assertEquals(message, old, expected);
+        }
+
+        assertEquals(message, expected, map.vote(scan));
+        // Without a confidence and with every scan, the vote has to end like the old pipeline
+        ColorVote vote = new ColorVote(map, scan.length, Double.POSITIVE_INFINITY);
+        for (Color color : scan) {
+            vote.add(color);
+        }
+        assertEquals(message, expected, vote.getColor());
+    }
+
+    private static Color[] repeat(Color a, int countA, Color b, int countB) {
+        Color[] scan = new Color[countA + countB];
+        Arrays.fill(scan, 0, countA, a);
+        Arrays.fill(scan, countA, scan.length, b);
+        return scan;
+    }
+
+    /**
+     * <p>ColorMap as it was before it was backed by arrays, with the mappings and priorities of its three maps</p>
+     * <p>{@link #mappedValues(Color...)}, {@link #getPrioritisedValueBySum(Color...)} and
+     * {@link #repeatByPriority(Color...)} are copied unchanged</p>
+     */
+    private static class BaselineColorMap {
+
+        protected final Map<Color, Color> valueMapping;
+        protected final Map<Color, Integer> priorities;
+
+        private BaselineColorMap() {
+            this.valueMapping = new HashMap<>();
+            this.priorities = new HashMap<>();
+        }
+
+        private static BaselineColorMap laundryBlock() {
+            BaselineColorMap map = new BaselineColorMap();
+            map.valueMapping.put(Color.NONE_MATCHING, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.NO_COLOR, Color.NO_COLOR);
+            map.valueMapping.put(Color.BLACK, Color.BLACK);
+            map.valueMapping.put(Color.WHITE, Color.BLACK);
+            map.valueMapping.put(Color.RED, Color.RED);
+            map.valueMapping.put(Color.GREEN, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.BLUE, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.YELLOW, Color.YELLOW);
+            map.valueMapping.put(Color.BROWN, Color.YELLOW);
+
+            map.priorities.put(Color.NONE_MATCHING, 3);
+            map.priorities.put(Color.NO_COLOR, 3);
+            map.priorities.put(Color.BLACK, 5);
+            map.priorities.put(Color.WHITE, 5);
+            map.priorities.put(Color.RED, 4);
+            map.priorities.put(Color.GREEN, 0);
+            map.priorities.put(Color.BLUE, 0);
+            map.priorities.put(Color.YELLOW, 7);
+            map.priorities.put(Color.BROWN, 2);
+            return map;
+        }
+
+        private static BaselineColorMap laundryBasket() {
+            BaselineColorMap map = new BaselineColorMap();
+            map.valueMapping.put(Color.NONE_MATCHING, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.NO_COLOR, Color.NO_COLOR);
+            map.valueMapping.put(Color.BLACK, Color.BLACK);
+            map.valueMapping.put(Color.WHITE, Color.BLACK);
+            map.valueMapping.put(Color.RED, Color.RED);
+            map.valueMapping.put(Color.GREEN, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.BLUE, Color.BLACK);
+            map.valueMapping.put(Color.YELLOW, Color.YELLOW);
+            map.valueMapping.put(Color.BROWN, Color.YELLOW);
+
+            map.priorities.put(Color.NONE_MATCHING, 1);
+            map.priorities.put(Color.NO_COLOR, 3);
+            map.priorities.put(Color.BLACK, 10);
+            map.priorities.put(Color.WHITE, 10);
+            map.priorities.put(Color.RED, 4);
+            map.priorities.put(Color.GREEN, 0);
+            map.priorities.put(Color.BLUE, 2);
+            map.priorities.put(Color.YELLOW, 7);
+            map.priorities.put(Color.BROWN, 2);
+            return map;
+        }
+
+        private static BaselineColorMap roomBlock() {
+            BaselineColorMap map = new BaselineColorMap();
+            map.valueMapping.put(Color.NONE_MATCHING, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.NO_COLOR, Color.NO_COLOR);
+            map.valueMapping.put(Color.BLACK, Color.WHITE);
+            map.valueMapping.put(Color.WHITE, Color.WHITE);
+            map.valueMapping.put(Color.RED, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.GREEN, Color.GREEN);
+            map.valueMapping.put(Color.BLUE, Color.WHITE);
+            map.valueMapping.put(Color.YELLOW, Color.NONE_MATCHING);
+            map.valueMapping.put(Color.BROWN, Color.NONE_MATCHING);
+
+            map.priorities.put(Color.NONE_MATCHING, 1);
+            map.priorities.put(Color.NO_COLOR, 3);
+            map.priorities.put(Color.BLACK, 1);
+            map.priorities.put(Color.WHITE, 10);
+            map.priorities.put(Color.RED, 1);
+            map.priorities.put(Color.GREEN, 5);
+            map.priorities.put(Color.BLUE, 4);
+            map.priorities.put(Color.YELLOW, 1);
+            map.priorities.put(Color.BROWN, 1);
+            return map;
+        }
+
+        /**
+         * <p>Returns an array of the mapped {@link Color color} values</p>
+         * <p>It maps each input value to its in the constructor given mapped color and returns this array.</p>
+         *
+         * @param values Values to map
+         * @return Mapped values
+         */
+        public Color[] mappedValues(Color... values) {
+            Color[] mapped = new Color[values.length];
+            for (int i = 0; i < values.length; i++) {
+                mapped[i] = valueMapping.get(values[i]);
+            }
+            return mapped;
+        }
+
+        /**
+         * <p>Returns the most prioritized {@link Color color}. <br>
+         * This gets calculated by summing the priorities of each value and returning the one with the highest
+         * priority</p>
+         *
+         * @param values Colors to calculate in the process
+         * @return Prioritized color
+         */
+        public Color getPrioritisedValueBySum(Color... values) {
+            Map<Color, Integer> prioritySum = new HashMap<>();
+            for (Color v : values) {
+                int temp = prioritySum.containsKey(v) ? prioritySum.get(v) : 0;
+                prioritySum.remove(v);
+                prioritySum.put(v, temp + priorities.get(v));
+            }
+
+            Color maxvalue = null;
+            int maxPriority = -1;
+            for (Color k : prioritySum.keySet()) {
+                if (prioritySum.get(k) > maxPriority) {
+                    maxPriority = prioritySum.get(k);
+                    maxvalue = k;
+                }
+            }
+            return maxvalue;
+        }
+
+        /**
+         * <p>Returns the {@link Color color} repeated as often as its priority says</p>
+         * @param values Values to repeat
+         * @return The values
+         */
+        public Color[] repeatByPriority(Color ... values) {
+            List<Color> colors = new ArrayList<>();
+            for (Color value : values) {
+                for (int i = 0; i < priorities.get(value); i++) {
+                    colors.add(value);
+                }
+            }
+            return colors.toArray(new Color[0]);
+        }
+
+        /**
+         * <p>Sums the priorities like {@link #getPrioritisedValueBySum(Color...)}, but returns every color with the
+         * highest sum</p>
+         *
+         * @param values Colors to calculate in the process
+         * @return Colors with the highest sum in the order of their ordinals, empty if there are no values
+         */
+        private Set<Color> heaviest(Color... values) {
+            Map<Color, Integer> prioritySum = new HashMap<>();
+            for (Color v : values) {
+                int temp = prioritySum.containsKey(v) ? prioritySum.get(v) : 0;
+                prioritySum.put(v, temp + priorities.get(v));
+            }
+            int maxPriority = -1;
+            for (int sum : prioritySum.values()) {
+                maxPriority = Math.max(maxPriority, sum);
+            }
+            Set<Color> heaviest = EnumSet.noneOf(Color.class);
+            for (Map.Entry<Color, Integer> entry : prioritySum.entrySet()) {
+                if (entry.getValue() == maxPriority) {
+                    heaviest.add(entry.getKey());
+                }
+            }
+            return heaviest;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package team.brickfire.data.color;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Checks how often a {@link ColorVote} that stops early ends on another color than voting on all scans</p>
+ * <p>The scans are noisy on purpose: every scan is a random color with the given probability, otherwise the color of
+ * the block. At most 1 - confidence of the votes may end on another color than {@link ColorMap#vote(Color...)} of
+ * all scans</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class ColorVoteTest {
+
+    private static final Color[] COLORS = Color.values();
+    private static final ColorMap[] MAPS = {new LaundryBlockColorMap(), new LaundryBasketColorMap(),
+            new RoomBlockColorMap()};
+    // As many scans as AdvancedColor, Side and LaundryAction take at most
+    private static final int SAMPLES = 10;
+    private static final int VOTES = 20000;
+
+    @Test
+    public void rarelyEndsOnAnotherColor() {
+        for (double noise : new double[] {0.25, 0.5}) {
+            for (double confidence : new double[] {0.9, 0.99}) {
+                for (ColorMap map : MAPS) {
+                    Random random = new Random(2022);
+                    int flips = 0;
+                    for (int i = 0; i < VOTES; i++) {
+                        Color[] scan = noisyScan(random, noise);
+                        if (vote(map, scan, confidence).getColor() != map.vote(scan)) {
+                            flips++;
+                        }
+                    }
+                    double flipRate = (double) flips / VOTES;
+                    assertTrue(map.getClass().getSimpleName() + " with noise " + noise + " at " + confidence
+                            + " ended on another color in " + flipRate, flipRate <= 1 - confidence);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void neverEndsOnAnotherColorWithoutConfidence() {
+        for (ColorMap map : MAPS) {
+            Random random = new Random(2022);
+            for (int i = 0; i < VOTES; i++) {
+                Color[] scan = noisyScan(random, 0.5);
+                assertEquals(map.vote(scan), vote(map, scan, 1).getColor());
+            }
+        }
+    }
+
+    @Test
+    public void endsEarlyOnMatchingScans() {
+        // Light colors can't end early, one scan of a heavy color would outweigh them. The heaviest ones have to
+        for (ColorMap map : MAPS) {
+            int heaviest = 0;
+            for (Color color : COLORS) {
+                heaviest = Math.max(heaviest, map.voteWeight(color));
+            }
+            for (Color color : COLORS) {
+                if (map.voteWeight(color) < heaviest) {
+                    continue;
+                }
+                Color[] scan = new Color[SAMPLES];
+                Arrays.fill(scan, color);
+                ColorVote vote = vote(map, scan, 0.9);
+                assertEquals(map.mappedValue(color), vote.getColor());
+                assertTrue(map.getClass().getSimpleName() + " " + color + " took " + vote.getSamples() + " scans",
+                        vote.getSamples() < SAMPLES);
+            }
+        }
+    }
+
+    @Test
+    public void binomialTailMatchesSum() {
+        // 2 or more successes in 4 trials with 0.3 each
+        double expected = 6 * 0.09 * 0.49 + 4 * 0.027 * 0.7 + 0.0081;
+        assertEquals(expected, ColorVote.binomialTail(2, 4, 0.3), 1e-12);
+        assertEquals(1, ColorVote.binomialTail(0, 4, 0.3), 1e-12);
+        assertEquals(0, ColorVote.binomialTail(5, 4, 0.3), 1e-12);
+        // Doesn't underflow with many trials
+        assertEquals(0.5, ColorVote.binomialTail(1001, 2001, 0.5), 1e-9);
+    }
+
+    private static ColorVote vote(ColorMap map, Color[] scan, double confidence) {
+        ColorVote vote = new ColorVote(map, scan.length, confidence);
+        for (Color color : scan) {
+            if (!vote.add(color)) {
+                break;
+            }
+        }
+        return vote;
+    }
+
+    private static Color[] noisyScan(Random random, double noise) {
+        Color actual = COLORS[random.nextInt(COLORS.length)];
+        Color[] scan = new Color[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            scan[i] = random.nextDouble() < noise ? COLORS[random.nextInt(COLORS.length)] : actual;
+        }
+        return scan;
+    }
+}
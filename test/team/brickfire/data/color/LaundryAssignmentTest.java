@@ -0,0 +1,90 @@
+package team.brickfire.data.color;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Checks that {@link LaundryAssignment} tells the floor from the black block by the error of the rgb bursts</p>
+ * <p>The laundry maps count the white floor as black, so a scan of the floor votes exactly like the black block. If
+ * the errors are too close to decide, the scans with the smallest error have to be taken as the floor</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class LaundryAssignmentTest {
+
+    private static final double[] YELLOW = {1, 0, 0};
+    private static final double[] RED = {0, 1, 0};
+    private static final double[] BLACK = {0, 0, 1};
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void steadiestBlackScanIsFloor() {
+        LaundryAssignment assignment = new LaundryAssignment(LaundryAssignment.likelihoods(
+                new double[][] {YELLOW, BLACK, RED, BLACK}, new double[] {0.03, 0.005, 0.03, 0.02}));
+        assertNull(assignment.getColor(1));
+        assertEquals(Color.BLACK, assignment.getColor(3));
+        assertArrayEquals(new Color[] {Color.YELLOW, Color.RED, Color.BLACK}, assignment.getBlocks());
+        assertFalse(assignment.toString(), assignment.isAmbiguous());
+
+        assignment = new LaundryAssignment(LaundryAssignment.likelihoods(
+                new double[][] {YELLOW, BLACK, RED, BLACK}, new double[] {0.03, 0.02, 0.03, 0.005}));
+        assertEquals(Color.BLACK, assignment.getColor(1));
+        assertNull(assignment.getColor(3));
+    }
+
+    @Test
+    public void ambiguousScansFallBackToSmallestError() {
+        double[][] shares = {YELLOW, BLACK, RED, BLACK};
+        double[] errors = {0.03, 0.0101, 0.03, 0.01};
+        assertTrue(new LaundryAssignment(LaundryAssignment.likelihoods(shares, errors)).isAmbiguous());
+
+        LaundryAssignment assignment = LaundryAssignment.evaluate(shares, errors);
+        assertTrue(assignment.toString(), assignment.isFloorByError());
+        assertEquals(Color.BLACK, assignment.getColor(1));
+        assertNull(assignment.getColor(3));
+        assertArrayEquals(new Color[] {Color.YELLOW, Color.BLACK, Color.RED}, assignment.getBlocks());
+    }
+
+    @Test
+    public void clearScansKeepLikelihoods() {
+        LaundryAssignment assignment = LaundryAssignment.evaluate(new double[][] {YELLOW, BLACK, RED, BLACK},
+                new double[] {0.03, 0.005, 0.03, 0.02});
+        assertFalse(assignment.isFloorByError());
+        assertNull(assignment.getColor(1));
+    }
+
+    @Test
+    public void likelihoodsAddUpToOne() {
+        double[][] shares = {{0.5, 0.1, 0.3}, {0, 0, 1}, {0.2, 0.2, 0.2}, {0, 0.9, 0.1}, {0, 0, 0}};
+        double[][] likelihoods = LaundryAssignment.likelihoods(shares, new double[] {0.01, 0.002, 0.04, 0, 0.1});
+        for (double[] scan : likelihoods) {
+            double sum = 0;
+            for (double likelihood : scan) {
+                sum += likelihood;
+            }
+            assertEquals(1, sum, EPSILON);
+        }
+    }
+
+    @Test
+    public void blackStaysBlackWithoutFloorScans() {
+        double[][] likelihoods = LaundryAssignment.likelihoods(new double[][] {YELLOW, BLACK, RED},
+                new double[] {0.03, 0.001, 0.03});
+        assertEquals(1, likelihoods[1][2], EPSILON);
+        assertEquals(0, likelihoods[1][3], EPSILON);
+    }
+
+    @Test
+    public void unclearScanKeepsBlack() {
+        double[][] likelihoods = LaundryAssignment.likelihoods(new double[][] {YELLOW, BLACK, RED, BLACK},
+                new double[] {0.03, Double.MAX_VALUE, 0.03, 0.02});
+        assertEquals(1, likelihoods[1][2], EPSILON);
+        assertEquals(0, likelihoods[1][3], EPSILON);
+    }
+}
@@ -0,0 +1,41 @@
+package team.brickfire.robot_parts.arms;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Checks the time {@link ArmMovement#duration(int, double, double, double)} estimates for short movements that
+ * never reach their speed, long ones and chained ones</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class ArmMovementTest {
+
+    private static final double MAX_SPEED = 1000;
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void shortMovementOnlyAcceleratesAndBrakes() {
+        // At 1000 degrees/s² the arm would need 250 degrees to reach 500 degrees/s, it accelerates for 100 of the
+        // 200 degrees and brakes for the other 100
+        ArmMovement movement = new RotateToArmMovement(-200, 50);
+        assertEquals(2 * Math.sqrt(100.0 / 500), movement.duration(0, 40, MAX_SPEED, 2), EPSILON);
+    }
+
+    @Test
+    public void longMovementRunsAtSpeed() {
+        // Accelerating and braking take a second and 250 degrees each, the other 1000 degrees at 500 degrees/s
+        ArmMovement movement = new RotateDistanceArmMovement(1500, 50);
+        assertEquals(1 + 2 + 1, movement.duration(100, 40, MAX_SPEED, 1), EPSILON);
+    }
+
+    @Test
+    public void chainStartsWhereMovementEnds() {
+        // Without a speed of its own the chained movement runs at the standard speed of 40%
+        ArmMovement movement = new RotateToArmMovement(-700, 50).chain(new RotateToArmMovement(100));
+        assertEquals(700.0 / 500 + 1 + 800.0 / 400 + 1, movement.duration(0, 40, MAX_SPEED, 1), EPSILON);
+        assertEquals(0, new RotateDistanceArmMovement(0).duration(0, 40, MAX_SPEED, 1), EPSILON);
+    }
+}
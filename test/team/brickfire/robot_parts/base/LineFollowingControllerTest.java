@@ -0,0 +1,83 @@
+package team.brickfire.robot_parts.base;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Runs the {@link LineFollowingController} with its default gain table against the line model of the
+ * {@link LineFollowingSimulation} and checks the anti-windup of the integral on its own</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class LineFollowingControllerTest {
+
+    private static final double[] SPEEDS = {20, 25, 37.5, 50, 62.5, 75, 87.5, 100};
+    private static final double[] OFFSETS = {-1, -0.5, 0.5, 1};
+    private static final int SEEDS = 5;
+    // The robot counts as on the line within this offset in cm
+    private static final double BAND = 0.3;
+    // Distance in cm the robot may need to settle on the line and how far in cm it may swing past it
+    private static final double MAX_SETTLING = 20;
+    private static final double MAX_OVERSHOOT = 0.4;
+    private static final double DT = 0.005;
+
+    @Test
+    public void settlesOnLineAtEverySpeed() {
+        for (double speed : SPEEDS) {
+            for (double offset : OFFSETS) {
+                for (int seed = 0; seed < SEEDS; seed++) {
+                    // Starting turned away from the line and towards it
+                    for (double angle : new double[] {-5 * Math.signum(offset), 0, 5 * Math.signum(offset)}) {
+                        String start = speed + "% from " + offset + "cm at " + angle + "°, seed " + seed;
+                        double settling = new LineFollowingSimulation(seed).settle(new LineFollowingController(),
+                                speed, offset, angle, BAND);
+                        assertTrue(start + " settled after " + settling + "cm", settling <= MAX_SETTLING);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void integralDoesNotSwingPastLine() {
+        // Coming back from the side of the line the integral builds up, without anti-windup it pushes the robot
+        // over to the other side
+        for (double speed : SPEEDS) {
+            for (double offset : OFFSETS) {
+                for (int seed = 0; seed < SEEDS; seed++) {
+                    double overshoot = new LineFollowingSimulation(seed).overshoot(new LineFollowingController(),
+                            speed, offset, 5 * Math.signum(offset));
+                    assertTrue(speed + "% from " + offset + "cm, seed " + seed + " swung " + overshoot + "cm past",
+                            overshoot <= MAX_OVERSHOOT);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void integralStopsGrowingWhileSaturated() {
+        // The proportional part alone nearly saturates, so the integral only has to make up the last 0.1
+        LineFollowingController controller = new LineFollowingController(-0.9, -1, 0);
+        controller.reset(50);
+        for (int i = 0; i < 1000; i++) {
+            controller.update(1, DT);
+        }
+        assertEquals(-1, controller.getCorrection(), 1e-9);
+        // Nothing more was integrated than needed to saturate, so a small error the other way already steers back
+        controller.update(-0.2, DT);
+        assertEquals(0.08, controller.getCorrection(), 0.01);
+    }
+
+    @Test
+    public void integralIsLimited() {
+        LineFollowingController controller = new LineFollowingController(0, -1, 0);
+        controller.reset(50);
+        for (int i = 0; i < 2000; i++) {
+            controller.update(1, DT);
+        }
+        assertEquals(-0.3, controller.getCorrection(), 1e-9);
+    }
+}
@@ -0,0 +1,37 @@
+package team.brickfire.robot_parts.sensors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Checks that the sample rate of the {@link SensorPoller} only counts the time it was reading</p>
+ *
+ * @author Team BrickFire
+ * @version 1.0
+ */
+public class SensorPollerTest {
+
+    private static final double PERIOD = 5;
+
+    @Test
+    public void sampleRateIgnoresPauses() throws InterruptedException {
+        SensorPoller poller = new SensorPoller(new ColorSensor(null) {
+            @Override
+            public void fetchReflectedLight(float[] sample, int offset) {
+                sample[offset] = 0.5f;
+            }
+        }, PERIOD);
+        poller.resume();
+        Thread.sleep(100);
+        poller.pause();
+        // Paused like between two line followings
+        Thread.sleep(500);
+        poller.resume();
+        Thread.sleep(60);
+        double rate = poller.getSampleRate();
+        poller.pause();
+        // 200 samples per second, counting the pause would give about 50
+        assertTrue("Sample rate " + rate, rate > 0.5 * 1000 / PERIOD);
+    }
+}
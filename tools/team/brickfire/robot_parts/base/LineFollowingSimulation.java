@@ -0,0 +1,244 @@
+package team.brickfire.robot_parts.base;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>Simulates the robot following a straight line, so the {@link LineFollowingController} can be tuned without
+ * the robot</p>
+ * <p>The robot is modeled as a differential drive whose wheels reach their commanded speed with the acceleration
+ * {@link team.brickfire.robot_parts.Robot#lineFollowing(double, double, boolean) lineFollowing} sets. The light
+ * sensors see the part of their spot that lies on the black line, with noise. Each control step uses the sensor
+ * values of the previous one, like reading the sensors takes most of a step on the robot</p>
+ * <p>The dimensions of the sensors and the line are estimates and should be adjusted to the robot before trusting
+ * the tuned gains</p>
+ * <p>Running it searches the gains for every speed of the gain table and prints them</p>
+ *
+ * @version 1.0
+ * @author Team BrickFire
+ */
+public class LineFollowingSimulation {
+
+    // Wheel offset of the robot in cm, as in RunWRO
+    private static final double WHEEL_OFFSET = 8.85;
+    // Estimated maximum speed of the wheels in cm/s
+    private static final double MAX_LINEAR_SPEED = 42.5;
+    // Estimated position of the sensors: ahead of the wheels and to the side of the robots center in cm
+    private static final double SENSOR_AHEAD = 8;
+    private static final double SENSOR_SIDE = 1.6;
+    // Radius of the spot a sensor sees in cm
+    private static final double SENSOR_SPOT = 0.6;
+    private static final double LINE_WIDTH = 2;
+    private static final double WHITE = 0.75;
+    private static final double BLACK = 0.05;
+    private static final double NOISE = 0.01;
+
+    private static final double PERIOD = 0.005;
+    private static final double JITTER = 0.001;
+    private static final double SEGMENT = 80;
+    private static final int RUNS = 20;
+
+    private final Random random;
+
+    /**
+     * <p>Creates a simulation</p>
+     *
+     * @param seed Seed for the noise and the starting positions, so results can be compared
+     */
+    public LineFollowingSimulation(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * <p>Follows one segment</p>
+     *
+     * @param controller Controller to follow the line with
+     * @param speed Commanded speed (0-100%)
+     * @param offset Distance of the robots center from the line at the start in cm, positive is left
+     * @param angle Angle between the robot and the line at the start in degrees, positive is counterclockwise
+     * @return Root mean square of the offset while driving in cm or infinity if the robot lost the line
+     */
+    public double follow(LineFollowingController controller, double speed, double offset, double angle) {
+        Run run = drive(controller, speed, offset, angle);
+        if (run.lost) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double squares = 0;
+        for (int i = 0; i < run.steps; i++) {
+            squares += run.offsets[i] * run.offsets[i];
+        }
+        return Math.sqrt(squares / run.steps);
+    }
+
+    /**
+     * <p>Follows one segment and measures how long it takes to settle on the line</p>
+     *
+     * @param controller Controller to follow the line with
+     * @param speed Commanded speed (0-100%)
+     * @param offset Distance of the robots center from the line at the start in cm, positive is left
+     * @param angle Angle between the robot and the line at the start in degrees, positive is counterclockwise
+     * @param band Largest offset from the line in cm that counts as settled
+     * @return Distance driven in cm until the offset stays within the band up to the end of the segment or infinity
+     * if the robot lost the line or didn't settle
+     */
+    public double settle(LineFollowingController controller, double speed, double offset, double angle,
+                         double band) {
+        Run run = drive(controller, speed, offset, angle);
+        if (run.lost || Math.abs(run.offsets[run.steps - 1]) > band) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int settled = run.steps - 1;
+        while (settled > 0 && Math.abs(run.offsets[settled - 1]) <= band) {
+            settled--;
+        }
+        return run.distances[settled];
+    }
+
+    /**
+     * <p>Follows one segment and measures how far the robot swings past the line</p>
+     *
+     * @param controller Controller to follow the line with
+     * @param speed Commanded speed (0-100%)
+     * @param offset Distance of the robots center from the line at the start in cm, not 0
+     * @param angle Angle between the robot and the line at the start in degrees, positive is counterclockwise
+     * @return Largest offset on the other side of the line than the start in cm or infinity if the robot lost the line
+     */
+    public double overshoot(LineFollowingController controller, double speed, double offset, double angle) {
+        Run run = drive(controller, speed, offset, angle);
+        if (run.lost) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double overshoot = 0;
+        for (int i = 0; i < run.steps; i++) {
+            overshoot = Math.max(overshoot, -Math.signum(offset) * run.offsets[i]);
+        }
+        return overshoot;
+    }
+
+    private Run drive(LineFollowingController controller, double speed, double offset, double angle) {
+        Run run = new Run();
+        double y = offset;
+        double theta = Math.toRadians(angle);
+        double x = 0;
+        double left = 0, right = 0;
+        double acceleration = speed * 4 / 100 * MAX_LINEAR_SPEED;
+
+        controller.reset(speed);
+        double error = sensorDifference(y, theta);
+        while (x < SEGMENT) {
+            double dt = PERIOD + (random.nextDouble() - 0.5) * JITTER;
+            controller.update(error, dt);
+            // The sensors are read while the step runs, so the next step uses values from before the new speeds
+            error = sensorDifference(y, theta);
+
+            double leftGoal = controller.getLeftSpeed() / 100 * MAX_LINEAR_SPEED;
+            double rightGoal = controller.getRightSpeed() / 100 * MAX_LINEAR_SPEED;
+            left = approach(left, leftGoal, acceleration * dt);
+            right = approach(right, rightGoal, acceleration * dt);
+
+            double v = (left + right) / 2;
+            theta += (right - left) / (2 * WHEEL_OFFSET) * dt;
+            x += v * Math.cos(theta) * dt;
+            y += v * Math.sin(theta) * dt;
+
+            if (Math.abs(y) > LINE_WIDTH / 2 + SENSOR_SIDE + SENSOR_SPOT) {
+                run.lost = true;
+                return run;
+            }
+            run.add(x, y);
+        }
+        return run;
+    }
+
+    /**
+     * <p>Follows many segments with random starting positions</p>
+     *
+     * @param controller Controller to follow the line with
+     * @param speed Commanded speed (0-100%)
+     * @return Mean of the root mean square offsets in cm or infinity if the line was lost once
+     */
+    public double score(LineFollowingController controller, double speed) {
+        double sum = 0;
+        for (int i = 0; i < RUNS; i++) {
+            sum += follow(controller, speed, (random.nextDouble() - 0.5) * 2, (random.nextDouble() - 0.5) * 10);
+        }
+        return sum / RUNS;
+    }
+
+    private double sensorDifference(double y, double theta) {
+        double ahead = y + SENSOR_AHEAD * Math.sin(theta);
+        double side = SENSOR_SIDE * Math.cos(theta);
+        return sensor(ahead + side) - sensor(ahead - side);
+    }
+
+    private double sensor(double position) {
+        double black = Math.max(0, Math.min(position + SENSOR_SPOT, LINE_WIDTH / 2)
+                - Math.max(position - SENSOR_SPOT, -LINE_WIDTH / 2)) / (2 * SENSOR_SPOT);
+        return WHITE + (BLACK - WHITE) * black + random.nextGaussian() * NOISE;
+    }
+
+    private static double approach(double value, double goal, double maxChange) {
+        return value + SpeedUtility.limitSpeed(goal - value, -maxChange, maxChange);
+    }
+
+    /**
+     * <p>Searches the gains for every speed of the gain table and prints them</p>
+     *
+     * @param args Not used
+     */
+    public static void main(String[] args) {
+        double[] speeds = {25, 50, 75, 100};
+        double[] pGains = {-0.01, -0.02, -0.05, -0.1, -0.2, -0.3, -0.5, -0.8};
+        double[] iGains = {0, -0.05, -0.2, -0.5};
+        double[] dGains = {0, -0.002, -0.005, -0.01, -0.02};
+
+        LineFollowingSimulation simulation = new LineFollowingSimulation(2022);
+        System.out.println("Default gains:");
+        for (double speed : speeds) {
+            System.out.println(String.format("  %5.1f%%: %s", speed,
+                    format(simulation.score(new LineFollowingController(), speed))));
+        }
+
+        System.out.println("Best gains (speed, kP, kI, kD, rms offset):");
+        for (double speed : speeds) {
+            double best = Double.POSITIVE_INFINITY;
+            String bestGains = "none keeps the line";
+            for (double kP : pGains) {
+                for (double kI : iGains) {
+                    for (double kD : dGains) {
+                        LineFollowingController controller = new LineFollowingController(kP, kI, kD);
+                        double score = new LineFollowingSimulation(2022).score(controller, speed);
+                        if (score < best) {
+                            best = score;
+                            bestGains = kP + ", " + kI + ", " + kD;
+                        }
+                    }
+                }
+            }
+            System.out.println(String.format("  %5.1f%%: %s, %s", speed, bestGains, format(best)));
+        }
+    }
+
+    private static String format(double score) {
+        return Double.isInfinite(score) ? "line lost" : String.format("%.3fcm", score);
+    }
+
+    // Positions of the robot after every step of one segment
+    private static class Run {
+
+        private double[] distances = new double[1024];
+        private double[] offsets = new double[1024];
+        private int steps;
+        private boolean lost;
+
+        private void add(double distance, double offset) {
+            if (steps == distances.length) {
+                distances = Arrays.copyOf(distances, steps * 2);
+                offsets = Arrays.copyOf(offsets, steps * 2);
+            }
+            distances[steps] = distance;
+            offsets[steps] = offset;
+            steps++;
+        }
+    }
+}